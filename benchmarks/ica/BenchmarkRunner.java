@@ -0,0 +1,39 @@
+package ica;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the algorithm and of the problems with the GC profiler, so that
+ * the allocation rate of each operation is reported together with its time. The benchmarks
+ * are kept in the <code>benchmarks</code> source folder, which must be compiled together with
+ * the source folder of the algorithm, <code>jmh-core</code> and the annotation processor
+ * <code>jmh-generator-annprocess</code>, for example:
+ * <pre>
+ * javac -cp jmh-core.jar:jmh-generator-annprocess.jar:. -d bin $(find ica problem benchmarks -name '*.java')
+ * java -cp jmh-core.jar:bin ica.BenchmarkRunner [JMH options]
+ * </pre>
+ * The command line accepts the usual JMH options. A regular expression given as an argument
+ * selects the benchmarks to run; all benchmarks are run by default.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class BenchmarkRunner
+{
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException
+	{
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(commandLine);
+		if(args.length == 0)
+			options.include("ica\\..*Benchmark").include("problem\\..*Benchmark");
+		options.addProfiler(GCProfiler.class);
+
+		new Runner(options.build()).run();
+	}
+}
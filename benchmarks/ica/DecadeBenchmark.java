@@ -0,0 +1,68 @@
+package ica;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import problem.Problem;
+import problem.ProblemBenchmark;
+
+/**
+ * Measures one full decade of {@link ICAlgorithm}: the per-empire steps, uniting similar
+ * empires, the imperialistic competition and the update of the best solution. A new algorithm
+ * is created before each iteration so that all iterations measure the early decades, in which
+ * all initial empires still exist. Nothing is logged because the log is written by
+ * {@link ICAlgorithm#runICA()} and {@link ICAlgorithm#runEICA()} only.
+ *
+ * <p>Metrics must not be enabled while this benchmark runs.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecadeBenchmark
+{
+	@Param({"Sphere", "Rastrigin", "Ackley"})
+	private String function;
+
+	@Param({"10", "100", "1000"})
+	private int dimension;
+
+	@Param({"false", "true"})
+	private boolean useExplorers;
+
+	private ICAlgorithm ica;
+	private int decade;
+
+	@Setup(Level.Iteration)
+	public void setup()
+	{
+		Problem problem = ProblemBenchmark.createProblem(function, dimension);
+		ica = new ICAlgorithm(problem, System.getProperty("java.io.tmpdir") + File.separator + "ica-benchmark", null);
+		decade = 0;
+	}
+
+	@Benchmark
+	public double runDecade()
+	{
+		ica.runDecade(decade++, useExplorers);
+		return ica.minimumCost;
+	}
+}
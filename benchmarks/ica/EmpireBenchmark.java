@@ -0,0 +1,123 @@
+package ica;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import problem.AckleyProblem;
+import problem.Problem;
+import problem.SphereProblem;
+
+/**
+ * Measures the operations of a single {@link Empire}. The separable Sphere function and the
+ * non-separable Ackley function are both used so that the effect of delta evaluation on the
+ * explorers can be seen. The empire is rebuilt before each iteration because assimilation
+ * and the explorers move it towards convergence.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmpireBenchmark
+{
+	@Param({"Sphere", "Ackley"})
+	private String function;
+
+	@Param({"10", "100", "1000"})
+	private int dimension;
+
+	@Param({"10", "100"})
+	private int numOfColonies;
+
+	private Problem problem;
+	private Empire empire;
+	private RandomSource random;
+	private double[] removed;
+
+	@Setup(Level.Iteration)
+	public void setup()
+	{
+		problem = function.equals("Sphere") ? new SphereProblem(dimension, -100, 100) : new AckleyProblem(dimension, -32.768, 32.768);
+		random = new RandomSource(1);
+
+		// A damp ratio of one keeps the number of revolving colonies constant
+		empire = new Empire(0.02, problem, 0.1, 1);
+		empire.setRandom(random);
+		empire.setImperialistPosition(randomPoint());
+		double[][] colonies = new double[numOfColonies][];
+		for(int i = 0; i < numOfColonies; i++)
+			colonies[i] = randomPoint();
+		empire.setColoniesPosition(colonies);
+		empire.updateTotalCost();
+		removed = new double[dimension];
+	}
+
+	@Benchmark
+	public Empire assimilateColonies()
+	{
+		empire.asssimilateColonies(2, random);
+		return empire;
+	}
+
+	@Benchmark
+	public Empire revolveColonies()
+	{
+		empire.revolveColonies(random);
+		return empire;
+	}
+
+	@Benchmark
+	public Empire dispatchExplorers()
+	{
+		empire.dispatchExplorers6(0.5, 0, random);
+		return empire;
+	}
+
+	/**
+	 * Removes a random colony and adds it back with its cost, so that the size of the empire
+	 * does not change.
+	 */
+	@Benchmark
+	public Empire removeColony()
+	{
+		int index = random.nextInt(empire.getNumberOfColonies());
+		ColonyStore colonies = empire.getColonies();
+		colonies.copyPosition(index, removed);
+		double cost = colonies.getCost(index);
+		empire.removeColony(index);
+		empire.addColony(removed, cost);
+		return empire;
+	}
+
+	@Benchmark
+	public Empire updateTotalCost()
+	{
+		empire.updateTotalCost();
+		return empire;
+	}
+
+	private double[] randomPoint()
+	{
+		double[] point = new double[dimension];
+		for(int j = 0; j < dimension; j++)
+			point[j] = problem.getLowerBound(j) + random.nextDouble() * (problem.getUpperBound(j) - problem.getLowerBound(j));
+
+		return point;
+	}
+}
@@ -0,0 +1,108 @@
+package ica;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the helpers of {@link ICAUtils} that the algorithm calls in every decade or when
+ * it creates its initial empires.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ICAUtilsBenchmark
+{
+	@Param({"10", "100", "1000"})
+	private int n;
+
+	@Param({"10", "100"})
+	private int dimension;
+
+	private Random random;
+	private double[] pattern;
+	private double[][] matrix;
+	private double[] costs;
+	private int[] selected;
+
+	private double[] unsortedCosts;
+	private double[][] unsortedMatrix;
+
+	@Setup
+	public void setup()
+	{
+		random = new Random(1);
+		pattern = new double[dimension];
+		for(int j = 0; j < dimension; j++)
+			pattern[j] = random.nextDouble();
+		matrix = new double[n][dimension];
+		costs = new double[n];
+		for(int i = 0; i < n; i++)
+		{
+			for(int j = 0; j < dimension; j++)
+				matrix[i][j] = random.nextDouble();
+			costs[i] = random.nextDouble();
+		}
+		selected = ICAUtils.randperm(n, random);
+	}
+
+	/**
+	 * {@link ICAUtils#sortArray(double[], double[][])} sorts in place, so it gets a fresh copy
+	 * of the data before each call.
+	 */
+	@Setup(Level.Invocation)
+	public void copyUnsorted()
+	{
+		unsortedCosts = costs.clone();
+		unsortedMatrix = matrix.clone();
+	}
+
+	@Benchmark
+	public int[] randperm()
+	{
+		return ICAUtils.randperm(n, random);
+	}
+
+	@Benchmark
+	public double[] sortArray()
+	{
+		ICAUtils.sortArray(unsortedCosts, unsortedMatrix);
+		return unsortedCosts;
+	}
+
+	@Benchmark
+	public double[][] repmat()
+	{
+		return ICAUtils.repmat(pattern, n);
+	}
+
+	@Benchmark
+	public double[][] extractGivenArrayParts()
+	{
+		return ICAUtils.extractGivenArrayParts(matrix, selected);
+	}
+
+	@Benchmark
+	public double[] extractGivenCosts()
+	{
+		return ICAUtils.extractGivenArrayParts(costs, selected);
+	}
+}
@@ -0,0 +1,135 @@
+package problem;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of evaluating the benchmark functions of this package at single points,
+ * in batches and, for separable functions, after a change of one coordinate. The
+ * <code>PropellerProblem</code> is not included because it needs the MATLAB runtime.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProblemBenchmark
+{
+	/**
+	 * The number of points of a batch.
+	 */
+	private static final int BATCH = 64;
+
+	@Param({"Ackley", "DixonPrice", "DoubleSum", "GeneralizedSchaffer", "Griewank", "Michalewicz", "Powell",
+			"Rastrigin", "Rosenbrock", "Schwefel", "Schwefels2_21", "Schwefels2_22", "Sphere", "Styblinski",
+			"SumOfDifferentPowers", "SumSquares", "Trid", "Whitley", "Zakharov"})
+	private String function;
+
+	@Param({"2", "10", "100", "1000", "10000"})
+	private int dimension;
+
+	private Problem problem;
+	private double[] point;
+	private double pointValue;
+	private double[] batch;
+	private double[] values;
+	private int coordinate;
+	private double newCoordinate;
+
+	@Setup
+	public void setup()
+	{
+		problem = createProblem(function, dimension);
+
+		Random random = new Random(1);
+		batch = new double[BATCH * dimension];
+		for(int i = 0; i < BATCH; i++)
+			for(int j = 0; j < dimension; j++)
+				batch[i * dimension + j] = problem.getLowerBound(j) + random.nextDouble() * (problem.getUpperBound(j) - problem.getLowerBound(j));
+		values = new double[BATCH];
+		point = new double[dimension];
+		System.arraycopy(batch, 0, point, 0, dimension);
+		pointValue = problem.valueAt(point);
+		coordinate = random.nextInt(dimension);
+		newCoordinate = batch[dimension + coordinate];
+	}
+
+	@Benchmark
+	public double valueAt()
+	{
+		return problem.valueAt(point);
+	}
+
+	/**
+	 * Evaluates a batch of points. The result is the time per batch of {@link #BATCH} points.
+	 */
+	@Benchmark
+	public double[] valuesAt()
+	{
+		problem.valuesAt(batch, BATCH, values);
+		return values;
+	}
+
+	/**
+	 * Updates the value of a separable function after one coordinate has changed. It returns
+	 * immediately for functions that are not separable.
+	 */
+	@Benchmark
+	public double valueAfterChange()
+	{
+		if(!problem.isSeparable())
+			return pointValue;
+
+		return problem.valueAfterChange(pointValue, point, coordinate, newCoordinate);
+	}
+
+	/**
+	 * Creates a benchmark function with the bounds that are usually used for it.
+	 * @param name the name of the class of the function without the <code>Problem</code>
+	 * suffix.
+	 * @param dimension the dimension of the function.
+	 * @return a new instance of the function.
+	 */
+	public static Problem createProblem(String name, int dimension)
+	{
+		switch(name)
+		{
+		case "Ackley": return new AckleyProblem(dimension, -32.768, 32.768);
+		case "DixonPrice": return new DixonPriceProblem(dimension, -10, 10);
+		case "DoubleSum": return new DoubleSum(dimension, -65.536, 65.536);
+		case "GeneralizedSchaffer": return new GeneralizedSchafferProblem(dimension, -100, 100);
+		case "Griewank": return new GriewankProblem(dimension, -600, 600);
+		case "Michalewicz": return new MichalewiczProblem(dimension, 0, Math.PI);
+		case "Powell": return new PowellProblem(dimension, -4, 5);
+		case "Rastrigin": return new RastriginProblem(dimension, -5.12, 5.12);
+		case "Rosenbrock": return new RosenbrockProblem(dimension, -5, 10);
+		case "Schwefel": return new SchwefelProblem(dimension, -500, 500);
+		case "Schwefels2_21": return new Schwefels2_21Problem(dimension, -100, 100);
+		case "Schwefels2_22": return new Schwefels2_22Problem(dimension, -10, 10);
+		case "Sphere": return new SphereProblem(dimension, -100, 100);
+		case "Styblinski": return new StyblinskiProblem(dimension, -5, 5);
+		case "SumOfDifferentPowers": return new SumOfDifferentPowersProblem(dimension, -1, 1);
+		case "SumSquares": return new SumSquaresProblem(dimension, -10, 10);
+		case "Trid": return new TridProblem(dimension, -(double)dimension * dimension, (double)dimension * dimension);
+		case "Whitley": return new Whitley(dimension, -10.24, 10.24);
+		case "Zakharov": return new ZakharovProblem(dimension, -5, 10);
+		default: throw new IllegalArgumentException("Unknown function: " + name);
+		}
+	}
+}
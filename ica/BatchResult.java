@@ -0,0 +1,246 @@
+package ica;
+
+import java.util.Arrays;
+
+import ica.TerminationCriteria.StopReason;
+
+/**
+ * The outcome of a batch of runs of {@link ICAlgorithm}: the result of each run, whether it
+ * finished, was cancelled or failed, the exceptions of the runs that failed and the
+ * statistics of the runs that finished. A run is
+ * cancelled if it was stopped at the end of a decade because its batch was cancelled or if it
+ * was dropped before it started.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class BatchResult
+{
+	private final ICAResult[] results;
+	private final Throwable[] failures;
+	private final RunStatistics statistics = new RunStatistics();
+	private int targetRun = -1;
+	private int numOfRuns;
+
+	/**
+	 * Creates the result of a batch whose runs have not been launched yet.
+	 * @param maxRuns the number of runs that the batch can launch.
+	 */
+	BatchResult(int maxRuns)
+	{
+		this.results = new ICAResult[maxRuns];
+		this.failures = new Throwable[maxRuns];
+	}
+
+	/**
+	 * Records that the next run of the batch has been launched.
+	 * @return the index of the run.
+	 */
+	int launch()
+	{
+		return numOfRuns++;
+	}
+
+	/**
+	 * Records the result of a run that finished or was stopped.
+	 * @param run the index of the run.
+	 * @param result the result of the run.
+	 */
+	void add(int run, ICAResult result)
+	{
+		results[run] = result;
+		statistics.add(run, result);
+	}
+
+	/**
+	 * Records a run that was dropped before it started.
+	 * @param run the index of the run.
+	 */
+	void addDropped(int run)
+	{
+		statistics.addCancelled();
+	}
+
+	/**
+	 * Records a run that failed with an exception.
+	 * @param run the index of the run.
+	 * @param failure the exception that the run threw.
+	 */
+	void addFailed(int run, Throwable failure)
+	{
+		failures[run] = failure;
+		statistics.addFailed();
+	}
+
+	/**
+	 * Records the run that reached the target cost of the batch.
+	 * @param run the index of the run.
+	 */
+	void setTargetRun(int run)
+	{
+		this.targetRun = run;
+	}
+
+	/**
+	 * Returns the number of runs that the batch has launched.
+	 * @return the number of runs.
+	 */
+	public int getNumberOfRuns()
+	{
+		return numOfRuns;
+	}
+
+	/**
+	 * Returns the result of a run.
+	 * @param run the index of the run.
+	 * @return the result of the run or <code>null</code> if the run was dropped before it
+	 * started or failed. The result of a run that was stopped because the batch was cancelled
+	 * has the stop reason {@link StopReason#CANCELLED}.
+	 */
+	public ICAResult getResult(int run)
+	{
+		return results[run];
+	}
+
+	/**
+	 * Tells whether a run finished, that is, it stopped for any reason other than the
+	 * cancellation of its batch.
+	 * @param run the index of the run.
+	 * @return <code>true</code> if the run finished.
+	 */
+	public boolean isFinished(int run)
+	{
+		return results[run] != null && results[run].getStopReason() != StopReason.CANCELLED;
+	}
+
+	/**
+	 * Tells whether a run was cancelled, either at the end of a decade or before it started.
+	 * @param run the index of the run.
+	 * @return <code>true</code> if the run was cancelled.
+	 */
+	public boolean isCancelled(int run)
+	{
+		return failures[run] == null && !isFinished(run);
+	}
+
+	/**
+	 * Tells whether a run failed with an exception.
+	 * @param run the index of the run.
+	 * @return <code>true</code> if the run failed.
+	 */
+	public boolean isFailed(int run)
+	{
+		return failures[run] != null;
+	}
+
+	/**
+	 * Returns the exception that a run failed with.
+	 * @param run the index of the run.
+	 * @return the exception or <code>null</code> if the run did not fail.
+	 */
+	public Throwable getFailure(int run)
+	{
+		return failures[run];
+	}
+
+	/**
+	 * Returns the indexes of the runs that finished.
+	 * @return the indexes of the finished runs in ascending order.
+	 */
+	public int[] getFinishedRuns()
+	{
+		int[] runs = new int[numOfRuns];
+		int count = 0;
+		for(int i = 0; i < numOfRuns; i++)
+			if(isFinished(i))
+				runs[count++] = i;
+
+		return Arrays.copyOf(runs, count);
+	}
+
+	/**
+	 * Returns the indexes of the runs that were cancelled.
+	 * @return the indexes of the cancelled runs in ascending order.
+	 */
+	public int[] getCancelledRuns()
+	{
+		int[] runs = new int[numOfRuns];
+		int count = 0;
+		for(int i = 0; i < numOfRuns; i++)
+			if(isCancelled(i))
+				runs[count++] = i;
+
+		return Arrays.copyOf(runs, count);
+	}
+
+	/**
+	 * Returns the indexes of the runs that failed with an exception.
+	 * @return the indexes of the failed runs in ascending order.
+	 */
+	public int[] getFailedRuns()
+	{
+		int[] runs = new int[numOfRuns];
+		int count = 0;
+		for(int i = 0; i < numOfRuns; i++)
+			if(isFailed(i))
+				runs[count++] = i;
+
+		return Arrays.copyOf(runs, count);
+	}
+
+	/**
+	 * Returns the exceptions that the runs failed with. The batch does not report them, so
+	 * it is up to the caller to log or rethrow them.
+	 * @return the exceptions in the order of the indexes of the runs, which are returned by
+	 * {@link #getFailedRuns()}.
+	 */
+	public Throwable[] getFailures()
+	{
+		int[] runs = getFailedRuns();
+		Throwable[] errors = new Throwable[runs.length];
+		for(int i = 0; i < runs.length; i++)
+			errors[i] = failures[runs[i]];
+
+		return errors;
+	}
+
+	/**
+	 * Returns the best costs of the runs that finished.
+	 * @return the costs in the order of the indexes of the runs.
+	 */
+	double[] getFinishedCosts()
+	{
+		int[] runs = getFinishedRuns();
+		double[] costs = new double[runs.length];
+		for(int i = 0; i < runs.length; i++)
+			costs[i] = results[runs[i]].getBestCost();
+
+		return costs;
+	}
+
+	/**
+	 * Returns the run whose result reached the target cost of the batch and cancelled the
+	 * other runs.
+	 * @return the index of the run or -1 if the batch had no target or no run reached it.
+	 */
+	public int getTargetRun()
+	{
+		return targetRun;
+	}
+
+	/**
+	 * Returns the statistics of the runs that finished.
+	 * @return the statistics of the batch.
+	 */
+	public RunStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	@Override
+	public String toString()
+	{
+		return statistics + ", target run: " + targetRun + ", finished: " + Arrays.toString(getFinishedRuns())
+				+ ", cancelled: " + Arrays.toString(getCancelledRuns()) + ", failed: " + Arrays.toString(getFailedRuns());
+	}
+}
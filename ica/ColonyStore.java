@@ -0,0 +1,467 @@
+package ica;
+
+import java.util.Arrays;
+
+/**
+ * A flat, structure-of-arrays storage for the colonies of an {@link Empire}. Positions of
+ * all colonies are kept in one contiguous row-major <code>double[]</code> and their costs in
+ * a parallel <code>double[]</code>. The backing arrays have a capacity that grows on demand
+ * and all add, remove and swap operations are performed in place, so that the steady state
+ * of the algorithm does not allocate one array per colony.
+ *
+ * <p>The arrays returned by {@link #getPositions()} and {@link #getCosts()} are the backing
+ * arrays of this store and may be longer than the number of colonies. Only the first
+ * <code>size() * getDimension()</code> and <code>size()</code> elements of them are valid.
+ *
+ * <p>The store maintains the sum of the costs of its colonies and the index of the best
+ * (lowest cost) colony as colonies are added, removed and replaced one at a time, so that
+ * each such change updates them in constant time. The sum uses compensated (Neumaier)
+ * summation so that it does not drift. The best colony is tracked lazily: a change that may
+ * make it worse invalidates it and the next query scans the costs once. Code that writes
+ * costs directly into {@link #getCosts()} must call {@link #costsChanged()} afterwards, and
+ * the next queries of the sum and the best colony then scan all costs, which takes linear
+ * time. Assimilation evaluates every colony this way, so the sum costs one linear scan per
+ * decade; updating it for each written cost instead would not take less time.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+class ColonyStore
+{
+	private final int dimension;
+	private double[] positions;
+	private double[] costs;
+	private int size;
+
+	private double costSum;
+	private double costCompensation;
+	private boolean costSumValid = true;
+
+	/**
+	 * The index of the best colony or -1 if it is not known.
+	 */
+	private int bestIndex = -1;
+
+	/**
+	 * Creates an empty store.
+	 * @param dimension the dimension of the position of each colony.
+	 * @param initialCapacity the number of colonies that can be stored before the backing
+	 * arrays need to grow.
+	 */
+	public ColonyStore(int dimension, int initialCapacity)
+	{
+		if(dimension <= 0)
+			throw new IllegalArgumentException("Dimension cannot be negative or zero");
+		if(initialCapacity < 1)
+			initialCapacity = 1;
+
+		this.dimension = dimension;
+		this.positions = new double[initialCapacity * dimension];
+		this.costs = new double[initialCapacity];
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the number of colonies in this store.
+	 * @return the number of colonies.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the dimension of the position of each colony.
+	 * @return the dimension of the positions.
+	 */
+	public int getDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * Returns the number of colonies that the store can hold without growing.
+	 * @return the capacity of the store.
+	 */
+	public int getCapacity()
+	{
+		return costs.length;
+	}
+
+	/**
+	 * Returns the backing array of positions. The position of colony <code>i</code> starts
+	 * at offset <code>i * getDimension()</code>. The returned array is not a copy.
+	 * @return the backing array of positions.
+	 */
+	public double[] getPositions()
+	{
+		return positions;
+	}
+
+	/**
+	 * Returns the backing array of costs. Only the first {@link #size()} elements are valid.
+	 * The returned array is not a copy.
+	 * @return the backing array of costs.
+	 */
+	public double[] getCosts()
+	{
+		return costs;
+	}
+
+	/**
+	 * Returns the offset of the first coordinate of a colony in the positions array.
+	 * @param index index of the colony.
+	 * @return the offset of the colony in {@link #getPositions()}.
+	 */
+	public int offsetOf(int index)
+	{
+		return index * dimension;
+	}
+
+	/**
+	 * Returns one coordinate of the position of a colony.
+	 * @param index index of the colony.
+	 * @param coordinate the coordinate that is returned.
+	 * @return the value of the coordinate.
+	 */
+	public double get(int index, int coordinate)
+	{
+		return positions[index * dimension + coordinate];
+	}
+
+	/**
+	 * Sets one coordinate of the position of a colony. The cost of the colony is not changed.
+	 * @param index index of the colony.
+	 * @param coordinate the coordinate that is set.
+	 * @param value the new value of the coordinate.
+	 */
+	public void set(int index, int coordinate, double value)
+	{
+		positions[index * dimension + coordinate] = value;
+	}
+
+	/**
+	 * Returns the cost of a colony.
+	 * @param index index of the colony.
+	 * @return the cost of the colony.
+	 */
+	public double getCost(int index)
+	{
+		return costs[index];
+	}
+
+	/**
+	 * Sets the cost of a colony and updates the sum of the costs and the best colony in
+	 * constant time.
+	 * @param index index of the colony.
+	 * @param cost the new cost of the colony.
+	 */
+	public void setCost(int index, double cost)
+	{
+		replaceCost(index, cost);
+	}
+
+	/**
+	 * Returns the sum of the costs of the colonies. It takes constant time unless the costs
+	 * have been written in bulk since the last query; then all costs are summed again.
+	 * @return the sum of the costs.
+	 * @see #costsChanged()
+	 */
+	public double getCostSum()
+	{
+		if(!costSumValid)
+		{
+			costSum = 0;
+			costCompensation = 0;
+			for(int i = 0; i < size; i++)
+				addToCostSum(costs[i]);
+			costSumValid = true;
+		}
+
+		return costSum + costCompensation;
+	}
+
+	/**
+	 * Returns the index of the colony with the lowest cost. If several colonies have the
+	 * lowest cost, any of them may be returned.
+	 * @return the index of the best colony or -1 if the store is empty.
+	 */
+	public int getBestIndex()
+	{
+		if(bestIndex < 0 && size > 0)
+		{
+			bestIndex = 0;
+			for(int i = 1; i < size; i++)
+				if(costs[i] < costs[bestIndex])
+					bestIndex = i;
+		}
+
+		return bestIndex;
+	}
+
+	/**
+	 * Tells the store that the costs of its colonies have been written directly into the
+	 * array that {@link #getCosts()} returns. The sum of the costs and the best colony are
+	 * computed again from all costs when they are queried next, in linear time.
+	 */
+	public void costsChanged()
+	{
+		costSumValid = false;
+		bestIndex = -1;
+	}
+
+	/**
+	 * Copies the position of a colony into a given array.
+	 * @param index index of the colony.
+	 * @param destination the array that the position will be copied into. Its length must not
+	 * be less than the dimension of this store.
+	 * @return the <code>destination</code> array.
+	 */
+	public double[] copyPosition(int index, double[] destination)
+	{
+		System.arraycopy(positions, index * dimension, destination, 0, dimension);
+		return destination;
+	}
+
+	/**
+	 * Returns a copy of the position of a colony. This method allocates a new array and is
+	 * meant for the boundaries of the algorithm, not for its inner loops.
+	 * @param index index of the colony.
+	 * @return a new array containing the position of the colony.
+	 */
+	public double[] getPosition(int index)
+	{
+		return copyPosition(index, new double[dimension]);
+	}
+
+	/**
+	 * Overwrites the position of a colony with the given one. The cost of the colony is not
+	 * changed.
+	 * @param index index of the colony.
+	 * @param position the new position of the colony.
+	 */
+	public void setPosition(int index, double[] position)
+	{
+		System.arraycopy(position, 0, positions, index * dimension, dimension);
+	}
+
+	/**
+	 * Overwrites a colony of this store with a colony of another store.
+	 * @param index index of the colony in this store.
+	 * @param source the store that contains the new colony.
+	 * @param sourceIndex index of the colony in <code>source</code>.
+	 */
+	public void set(int index, ColonyStore source, int sourceIndex)
+	{
+		System.arraycopy(source.positions, sourceIndex * dimension, positions, index * dimension, dimension);
+		replaceCost(index, source.costs[sourceIndex]);
+	}
+
+	/**
+	 * Appends a colony to the end of this store.
+	 * @param position position of the new colony. The array is copied.
+	 * @param cost cost of the new colony.
+	 * @return the index of the new colony.
+	 */
+	public int add(double[] position, double cost)
+	{
+		ensureCapacity(size + 1);
+		System.arraycopy(position, 0, positions, size * dimension, dimension);
+		appendCost(cost);
+		return size++;
+	}
+
+	/**
+	 * Appends a colony whose position is stored in a part of a larger array.
+	 * @param positions the array that contains the position of the new colony.
+	 * @param offset the index of the first coordinate of the position in <code>positions</code>.
+	 * The coordinates are copied.
+	 * @param cost cost of the new colony.
+	 * @return the index of the new colony.
+	 */
+	public int add(double[] positions, int offset, double cost)
+	{
+		ensureCapacity(size + 1);
+		System.arraycopy(positions, offset, this.positions, size * dimension, dimension);
+		appendCost(cost);
+		return size++;
+	}
+
+	/**
+	 * Appends a colony of another store to the end of this store.
+	 * @param source the store that contains the colony.
+	 * @param index index of the colony in <code>source</code>.
+	 * @return the index of the new colony in this store.
+	 */
+	public int add(ColonyStore source, int index)
+	{
+		ensureCapacity(size + 1);
+		System.arraycopy(source.positions, index * dimension, positions, size * dimension, dimension);
+		appendCost(source.costs[index]);
+		return size++;
+	}
+
+	/**
+	 * Appends all colonies of another store to the end of this store.
+	 * @param source the store whose colonies will be appended.
+	 */
+	public void addAll(ColonyStore source)
+	{
+		ensureCapacity(size + source.size);
+		System.arraycopy(source.positions, 0, positions, size * dimension, source.size * dimension);
+		for(int i = 0; i < source.size; i++, size++)
+			appendCost(source.costs[i]);
+	}
+
+	/**
+	 * Removes a colony from the store. Colonies after the removed one are shifted one place
+	 * towards the beginning so that the order of the remaining colonies is preserved.
+	 * @param index index of the colony to remove.
+	 */
+	public void remove(int index)
+	{
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+
+		if(costSumValid)
+			addToCostSum(-costs[index]);
+		if(bestIndex == index)
+			bestIndex = -1;
+		else if(bestIndex > index)
+			bestIndex--;
+
+		int tail = size - index - 1;
+		if(tail > 0)
+		{
+			System.arraycopy(positions, (index + 1) * dimension, positions, index * dimension, tail * dimension);
+			System.arraycopy(costs, index + 1, costs, index, tail);
+		}
+		size--;
+	}
+
+	/**
+	 * Swaps the positions and costs of two colonies.
+	 * @param i index of the first colony.
+	 * @param j index of the second colony.
+	 */
+	public void swap(int i, int j)
+	{
+		if(i == j)
+			return;
+
+		int oi = i * dimension, oj = j * dimension;
+		for(int k = 0; k < dimension; k++)
+		{
+			double t = positions[oi + k];
+			positions[oi + k] = positions[oj + k];
+			positions[oj + k] = t;
+		}
+		double t = costs[i];
+		costs[i] = costs[j];
+		costs[j] = t;
+
+		if(bestIndex == i)
+			bestIndex = j;
+		else if(bestIndex == j)
+			bestIndex = i;
+	}
+
+	/**
+	 * Changes the number of colonies of the store. If the store grows, the positions and costs
+	 * of the new colonies are undefined and should be written by the caller.
+	 * @param size the new number of colonies.
+	 */
+	public void setSize(int size)
+	{
+		if(size < 0)
+			throw new IllegalArgumentException("Size cannot be negative");
+
+		ensureCapacity(size);
+		this.size = size;
+		costsChanged();
+	}
+
+	/**
+	 * Removes all colonies of the store. The backing arrays are kept for reuse.
+	 */
+	public void clear()
+	{
+		size = 0;
+		costSum = 0;
+		costCompensation = 0;
+		costSumValid = true;
+		bestIndex = -1;
+	}
+
+	/**
+	 * Makes sure that the store can hold at least the given number of colonies without
+	 * growing again.
+	 * @param capacity the minimum required capacity.
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		if(capacity <= costs.length)
+			return;
+
+		int newCapacity = Math.max(capacity, costs.length * 2);
+		positions = Arrays.copyOf(positions, newCapacity * dimension);
+		costs = Arrays.copyOf(costs, newCapacity);
+	}
+
+	/**
+	 * Stores the cost of a new colony at index <code>size</code> and updates the aggregates.
+	 */
+	private void appendCost(double cost)
+	{
+		costs[size] = cost;
+		if(costSumValid)
+			addToCostSum(cost);
+		if(size == 0 || (bestIndex >= 0 && cost < costs[bestIndex]))
+			bestIndex = size;
+	}
+
+	/**
+	 * Replaces the cost of a colony and updates the aggregates.
+	 */
+	private void replaceCost(int index, double cost)
+	{
+		double old = costs[index];
+		costs[index] = cost;
+		if(costSumValid)
+		{
+			addToCostSum(-old);
+			addToCostSum(cost);
+		}
+		if(bestIndex >= 0)
+		{
+			if(cost < costs[bestIndex])
+				bestIndex = index;
+			else if(bestIndex == index && cost > old)
+				bestIndex = -1;
+		}
+	}
+
+	private void addToCostSum(double x)
+	{
+		double t = costSum + x;
+		if(Math.abs(costSum) >= Math.abs(x))
+			costCompensation += (costSum - t) + x;
+		else
+			costCompensation += (x - t) + costSum;
+		costSum = t;
+	}
+
+	/**
+	 * Returns the positions of the colonies as a newly allocated matrix in which each row
+	 * contains the position of one colony.
+	 * @return a <code>size()</code>-by-<code>getDimension()</code> matrix.
+	 */
+	public double[][] toMatrix()
+	{
+		double[][] retval = new double[size][];
+		for(int i = 0; i < size; i++)
+			retval[i] = getPosition(i);
+
+		return retval;
+	}
+}
@@ -4,10 +4,8 @@ import ica.ICACallable;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Arrays;
+import java.util.List;
 
 import problem.Problem;
 
@@ -20,78 +18,163 @@ import problem.Problem;
  */
 public class ConcurrentICAEvaluation
 {
+	/**
+	 * The metrics of all runs of this class. They are registered as a JMX MBean and are only 
+	 * collected if {@link PhaseMetrics#ENABLED} is set.
+	 */
+	private static final PhaseMetrics metrics = new PhaseMetrics();
+	
+	/**
+	 * The scheduler that executes the runs of all batches. Its pool has one thread for each
+	 * available processor, so large batches do not oversubscribe the processors and small 
+	 * ones do not leave them idle. 
+	 */
+	private static final RunScheduler scheduler = new RunScheduler();
+	
+	static
+	{
+		if(PhaseMetrics.ENABLED)
+			PhaseMetrics.register(metrics, "Evaluation", "all");
+	}
+	
+	/**
+	 * Returns the metrics of all runs that this class has performed. 
+	 * @return the aggregated metrics of the runs. 
+	 * @see PhaseMetrics#ENABLED
+	 */
+	public static PhaseMetricsMBean getMetrics()
+	{
+		return metrics;
+	}
+	
 	/**
 	 * Receives a {@link Problem} object and performs an ICA optimization of the 
-	 * received problem for a given number of runs. The function uses thread pools
-	 * to boost the speed.  
+	 * received problem for a given number of runs. The runs are executed in parallel
+	 * on a pool with one thread for each available processor.  
 	 * 
 	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
 	 * @param noRun number of runs of the ICA algorithm runs that will be performed 
 	 * 				on the given problem. 
 	 * @param useExplorers if true, the evaluation will use the modified version of
 	 * 		  the ICA that exploits explorers.
-	 * @return an array of length 4 that will contain the result of test runs. The
+	 * @return an array of length 5 that will contain the result of test runs. The
 	 * first element is the best result that is achieved. The second element is the
 	 * mean of all test results and the third element is the standard deviation of
-	 * all test results. The last element is the index of the run that gave the 
-	 * best result among all runs.
+	 * all test results. The fourth element is the index of the run that gave the 
+	 * best result among all runs. The last element is the mean number of function
+	 * evaluations of the runs.
 	 */
 	public static double[] icaTestOnAFunction(Problem pr, int noRun, boolean useExplorers)
+	{
+		return icaTestOnAFunction(pr, noRun, useExplorers, (TerminationCriteria)null);
+	}
+	
+	/**
+	 * Receives a {@link Problem} object and performs an ICA optimization of the 
+	 * received problem for a given number of runs. The runs are executed in parallel
+	 * on a pool with one thread for each available processor.  
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param noRun number of runs of the ICA algorithm runs that will be performed 
+	 * 				on the given problem. 
+	 * @param useExplorers if true, the evaluation will use the modified version of
+	 * 		  the ICA that exploits explorers.
+	 * @param criteria the conditions that stop each run early. If <code>null</code>, each
+	 * run will execute all of its decades.
+	 * @return an array of length 5 that will contain the result of test runs. The
+	 * first element is the best result that is achieved. The second element is the
+	 * mean of all test results and the third element is the standard deviation of
+	 * all test results. The fourth element is the index of the run that gave the 
+	 * best result among all runs. The last element is the mean number of function
+	 * evaluations of the runs.
+	 */
+	public static double[] icaTestOnAFunction(Problem pr, int noRun, boolean useExplorers, TerminationCriteria criteria)
 	{
 		if(noRun <= 0)
 			throw new IllegalArgumentException("Number of runs must be a positive value.");
 		if(pr == null)
 			throw new IllegalArgumentException("Problem cannot be null.");
 
-		int noth = noRun / 3; // Number Of THreads that thread pool will contain.
-		if(noth == 0)
-			noth = 1;
-		ExecutorService executor = Executors.newFixedThreadPool(noth); 
-		ArrayList<Future<Double>> list = new ArrayList<Future<Double>>();
+		List<ICACallable> runs = new ArrayList<ICACallable>();
 		for(int i = 0; i < noRun; i++)
 		{
 			String fileName = File.separator + pr.toString() + "-" + (useExplorers ? "EICA" : "ICA") + "Run " + (i + 1);
-			ICACallable callable = new ICACallable(pr, fileName, useExplorers);
-			Future<Double> future = executor.submit(callable);
-			list.add(future);
+			runs.add(new ICACallable(pr, fileName, useExplorers, criteria));
 		}
 
-		double mean = 0;
-		double best = Double.MAX_VALUE;
-		double std = 0; 
-
-		// There may be better ways to do this but this one is very easy!
-		double[] icaResults = new double[noRun]; 
-		double bestRunIndex = 0;
+		return reportFailures(execute(runs)).getStatistics().toArray();
+	}
+	
+	/**
+	 * Receives a {@link Problem} object whose minimum is known and performs ICA optimizations 
+	 * of it until one of the runs reaches the minimum. Once a run has reached the target cost 
+	 * within the tolerance, the runs in progress stop at the end of their current decade and 
+	 * the runs that have not started are dropped. 
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param noRun the maximum number of runs of the ICA algorithm that will be performed 
+	 * 				on the given problem. 
+	 * @param useExplorers if true, the evaluation will use the modified version of
+	 * 		  the ICA that exploits explorers.
+	 * @param targetCost the known minimum of the problem. 
+	 * @param tolerance the distance above the target cost at which a run has reached it. 
+	 * It cannot be negative.
+	 * @return the result of the batch, which tells which runs finished and which ones were
+	 * cancelled.
+	 */
+	public static BatchResult icaTestToTarget(Problem pr, int noRun, boolean useExplorers, double targetCost, double tolerance)
+	{
+		return icaTestToTarget(pr, noRun, useExplorers, targetCost, tolerance, null);
+	}
+	
+	/**
+	 * Receives a {@link Problem} object whose minimum is known and performs ICA optimizations 
+	 * of it until one of the runs reaches the minimum. Once a run has reached the target cost 
+	 * within the tolerance, the runs in progress stop at the end of their current decade and 
+	 * the runs that have not started are dropped. 
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param noRun the maximum number of runs of the ICA algorithm that will be performed 
+	 * 				on the given problem. 
+	 * @param useExplorers if true, the evaluation will use the modified version of
+	 * 		  the ICA that exploits explorers.
+	 * @param targetCost the known minimum of the problem. 
+	 * @param tolerance the distance above the target cost at which a run has reached it. 
+	 * It cannot be negative.
+	 * @param criteria the other conditions that stop each run early. Their target cost is 
+	 * replaced by the target cost of this method. If <code>null</code>, each run will execute 
+	 * all of its decades unless it reaches the target. 
+	 * @return the result of the batch, which tells which runs finished and which ones were
+	 * cancelled.
+	 */
+	public static BatchResult icaTestToTarget(Problem pr, int noRun, boolean useExplorers, double targetCost, double tolerance, 
+											  TerminationCriteria criteria)
+	{
+		if(noRun <= 0)
+			throw new IllegalArgumentException("Number of runs must be a positive value.");
+		if(pr == null)
+			throw new IllegalArgumentException("Problem cannot be null.");
+		if(!(tolerance >= 0))
+			throw new IllegalArgumentException("Tolerance cannot be negative.");
+		
+		// Each run stops by itself at the target so that it can cancel the batch at once
+		TerminationCriteria runCriteria = criteria != null ? new TerminationCriteria(criteria) : new TerminationCriteria();
+		runCriteria.setTargetCost(targetCost + tolerance);
+		
+		List<ICACallable> runs = new ArrayList<ICACallable>();
 		for(int i = 0; i < noRun; i++)
 		{
-			try
-			{
-				icaResults[i] = list.get(i).get();
-//				System.out.println(icaResults[i]);
-				if(Math.abs(icaResults[i]) < Math.abs(best))
-				{
-					best = icaResults[i];
-					bestRunIndex = i;
-				}
-				mean = mean + icaResults[i];
-			} catch (InterruptedException | ExecutionException e)
-			{
-				e.printStackTrace();
-			}
+			String fileName = File.separator + pr.toString() + "-" + (useExplorers ? "EICA" : "ICA") + "Run " + (i + 1);
+			runs.add(new ICACallable(pr, fileName, useExplorers, runCriteria));
 		}
-		mean /= noRun;
-		std = ICAUtils.getSTD(icaResults, mean);
-
-		double[] retval = {best, mean, std, bestRunIndex};
-		executor.shutdown();
-		return retval;
+		
+		return execute(runs, targetCost + tolerance);
 	}
 	
 	/**
 	 * Receives a {@link Problem} object and performs an ICA optimization of the 
-	 * received problem for a given number of runs. The function uses thread pools
-	 * to boost the speed. This method does not create the initial population of 
+	 * received problem for a given number of runs. The runs are executed in parallel
+	 * on a pool with one thread for each available processor. This method does not create the initial population of 
 	 * colonies and empires that the ICA algorithm uses but receives it as an
 	 * argument. Hence, the number of empires that should be selected from the 
 	 * given initial population is also given as an argument. 
@@ -105,69 +188,22 @@ public class ConcurrentICAEvaluation
 	 * the ICA algorithm uses
 	 * @param numOfEmpires the number of empires that should be selected from the 
 	 * given initial population
-	 * @return an array of length 4 that will contain the result of test runs. The
+	 * @return an array of length 5 that will contain the result of test runs. The
 	 * first element is the best result that is achieved. The second element is the
 	 * mean of all test results and the third element is the standard deviation of
-	 * all test results. The last element is the index of the run that gave the 
-	 * best result among all runs. 
+	 * all test results. The fourth element is the index of the run that gave the 
+	 * best result among all runs. The last element is the mean number of function
+	 * evaluations of the runs. 
 	 */
 	public static double[] icaTestOnAFunction(Problem pr, int noRun, boolean useExplorers, double[][] initialPopulation, int numOfEmpires)
 	{
-		if(noRun <= 0)
-			throw new IllegalArgumentException("Number of runs must be a positive value.");
-		if(pr == null)
-			throw new IllegalArgumentException("Problem cannot be null.");
-		
-//		System.out.println(initialPopulation.length + "\n" + initialPopulation[0].length);
-		int noth = noRun / 3; // Number Of THreads that thread pool will contain.
-		if(noth == 0)
-			noth = 1;
-		ExecutorService executor = Executors.newFixedThreadPool(noth); 
-		ArrayList<Future<Double>> list = new ArrayList<Future<Double>>();
-		for(int i = 0; i < noRun; i++)
-		{// PSO-Sphere-Dim5-1
-			String fileName = (useExplorers ? "EICA" : "ICA") + "-" + pr.getName() + "-" + "Dim" + pr.getDimension() + "-" + (i + 1);
-			ICACallable callable = new ICACallable(pr, null, fileName, useExplorers, initialPopulation, numOfEmpires);
-			Future<Double> future = executor.submit(callable);
-			list.add(future);
-		}
-
-		double mean = 0;
-		double best = Double.MAX_VALUE;
-		double std = 0; 
-
-		// There may be better ways to do this but this one is very easy!
-		double[] icaResults = new double[noRun]; 
-		double bestRunIndex = 0;
-		for(int i = 0; i < noRun; i++)
-		{
-			try
-			{
-				icaResults[i] = list.get(i).get();
-//				System.out.println(icaResults[i]);
-				if(Math.abs(icaResults[i]) < Math.abs(best))
-				{
-					best = icaResults[i];
-					bestRunIndex = i;
-				}
-				mean = mean + icaResults[i];
-			} catch (InterruptedException | ExecutionException e)
-			{
-				e.printStackTrace();
-			}
-		}
-		mean /= noRun;
-		std = ICAUtils.getSTD(icaResults, mean);
-
-		double[] retval = {best, mean, std, bestRunIndex};
-		executor.shutdown();
-		return retval;
+		return icaTestOnAFunction(pr, noRun, useExplorers, initialPopulation, numOfEmpires, null);
 	}
 	
 	/**
 	 * Receives a {@link Problem} object and performs an ICA optimization of the 
-	 * received problem for a given number of runs. The function uses thread pools
-	 * to boost the speed. This method does not create the initial population of 
+	 * received problem for a given number of runs. The runs are executed in parallel
+	 * on a pool with one thread for each available processor. This method does not create the initial population of 
 	 * colonies and empires that the ICA algorithm uses but receives it as an
 	 * argument. Hence, the number of empires that should be selected from the 
 	 * given initial population is also given as an argument. 
@@ -183,63 +219,253 @@ public class ConcurrentICAEvaluation
 	 * given initial population
 	 * @param outputDirectory the directory that outputs of the ICA algorithm will
 	 * be saved to. 
-	 * @return an array of length 4 that will contain the result of test runs. The
+	 * @return an array of length 5 that will contain the result of test runs. The
 	 * first element is the best result that is achieved. The second element is the
 	 * mean of all test results and the third element is the standard deviation of
-	 * all test results. The last element is the index of the run that gave the 
-	 * best result among all runs. 
+	 * all test results. The fourth element is the index of the run that gave the 
+	 * best result among all runs. The last element is the mean number of function
+	 * evaluations of the runs. 
 	 */
 	public static double[] icaTestOnAFunction(Problem pr, int noRun, boolean useExplorers, double[][] initialPopulation, 
 											  int numOfEmpires, String outputDirectory)
+	{
+		return icaTestOnAFunction(pr, noRun, useExplorers, initialPopulation, numOfEmpires, outputDirectory, null);
+	}
+	
+	/**
+	 * Receives a {@link Problem} object and performs an ICA optimization of the 
+	 * received problem for a given number of runs. The runs are executed in parallel
+	 * on a pool with one thread for each available processor. This method does not create the initial population of 
+	 * colonies and empires that the ICA algorithm uses but receives it as an
+	 * argument. Hence, the number of empires that should be selected from the 
+	 * given initial population is also given as an argument. 
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param noRun number of runs of the ICA algorithm runs that will be performed 
+	 * 				on the given problem. 
+	 * @param useExplorers if true, the evaluation will use the modified version of
+	 * 		  the ICA that exploits explorers.
+	 * @param initialPopulation the initial population of colonies and empires that 
+	 * the ICA algorithm uses
+	 * @param numOfEmpires the number of empires that should be selected from the 
+	 * given initial population
+	 * @param outputDirectory the directory that outputs of the ICA algorithm will
+	 * be saved to. 
+	 * @param criteria the conditions that stop each run early. If <code>null</code>, each
+	 * run will execute all of its decades.
+	 * @return an array of length 5 that will contain the result of test runs. The
+	 * first element is the best result that is achieved. The second element is the
+	 * mean of all test results and the third element is the standard deviation of
+	 * all test results. The fourth element is the index of the run that gave the 
+	 * best result among all runs. The last element is the mean number of function
+	 * evaluations of the runs. 
+	 */
+	public static double[] icaTestOnAFunction(Problem pr, int noRun, boolean useExplorers, double[][] initialPopulation, 
+											  int numOfEmpires, String outputDirectory, TerminationCriteria criteria)
 	{
 		if(noRun <= 0)
 			throw new IllegalArgumentException("Number of runs must be a positive value.");
 		if(pr == null)
 			throw new IllegalArgumentException("Problem cannot be null.");
 		
-//		System.out.println(initialPopulation.length + "\n" + initialPopulation[0].length);
-		int noth = noRun / 3; // Number Of THreads that thread pool will contain.
-		if(noth == 0)
-			noth = 1;
-		ExecutorService executor = Executors.newFixedThreadPool(noth); 
-		ArrayList<Future<Double>> list = new ArrayList<Future<Double>>();
+		// The population is evaluated and sorted once and all runs share it
+		InitialPopulation population = InitialPopulation.of(pr, initialPopulation);
+		List<ICACallable> runs = new ArrayList<ICACallable>();
 		for(int i = 0; i < noRun; i++)
 		{// PSO-Sphere-Dim5-1
 			String fileName = (useExplorers ? "EICA" : "ICA") + "-" + pr.getName() + "-" + "Dim" + pr.getDimension() + "-" + (i + 1);
-			ICACallable callable = new ICACallable(pr, outputDirectory, fileName, useExplorers, initialPopulation, numOfEmpires);
-			Future<Double> future = executor.submit(callable);
-			list.add(future);
+			runs.add(new ICACallable(pr, outputDirectory, fileName, useExplorers, population, numOfEmpires, criteria));
 		}
 
-		double mean = 0;
-		double best = Double.MAX_VALUE;
-		double std = 0; 
-
-		// There may be better ways to do this but this one is very easy!
-		double[] icaResults = new double[noRun]; 
-		double bestRunIndex = 0;
-		for(int i = 0; i < noRun; i++)
-		{
-			try
+		return reportFailures(execute(runs)).getStatistics().toArray();
+	}
+	
+	/**
+	 * Receives a {@link Problem} object and performs ICA optimizations of it until the 
+	 * confidence interval of the mean, or of a quantile, of the results is narrow enough. 
+	 * Runs are launched adaptively on the same pool as the other methods of this class, 
+	 * between the minimum and the maximum number of runs of the stopping rule. 
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param useExplorers if true, the evaluation will use the modified version of
+	 * 		  the ICA that exploits explorers.
+	 * @param stopping the rule that decides when the results are precise enough.
+	 * @return an array of length 9 that will contain the result of test runs. The first 
+	 * five elements are the elements of the return value of 
+	 * {@link #icaTestOnAFunction(Problem, int, boolean)}. The next three elements are the 
+	 * estimate (the mean or the quantile of the results), and the lower and the upper bound 
+	 * of its confidence interval. The last element is the number of runs that finished. 
+	 */
+	public static double[] icaTestUntilPrecise(Problem pr, boolean useExplorers, SequentialStopping stopping)
+	{
+		return icaTestUntilPrecise(pr, useExplorers, stopping, null);
+	}
+	
+	/**
+	 * Receives a {@link Problem} object and performs ICA optimizations of it until the 
+	 * confidence interval of the mean, or of a quantile, of the results is narrow enough. 
+	 * Runs are launched adaptively on the same pool as the other methods of this class, 
+	 * between the minimum and the maximum number of runs of the stopping rule. 
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param useExplorers if true, the evaluation will use the modified version of
+	 * 		  the ICA that exploits explorers.
+	 * @param stopping the rule that decides when the results are precise enough.
+	 * @param criteria the conditions that stop each run early. If <code>null</code>, each
+	 * run will execute all of its decades.
+	 * @return an array of length 9 that will contain the result of test runs. The first 
+	 * five elements are the elements of the return value of 
+	 * {@link #icaTestOnAFunction(Problem, int, boolean)}. The next three elements are the 
+	 * estimate (the mean or the quantile of the results), and the lower and the upper bound 
+	 * of its confidence interval. The last element is the number of runs that finished. 
+	 */
+	public static double[] icaTestUntilPrecise(Problem pr, boolean useExplorers, SequentialStopping stopping, 
+											   TerminationCriteria criteria)
+	{
+		if(pr == null)
+			throw new IllegalArgumentException("Problem cannot be null.");
+		if(stopping == null)
+			throw new IllegalArgumentException("Stopping rule cannot be null.");
+		
+		BatchResult batch = scheduler.execute(i -> 
 			{
-				icaResults[i] = list.get(i).get();
-//				System.out.println(icaResults[i]);
-				if(Math.abs(icaResults[i]) < Math.abs(best))
-				{
-					best = icaResults[i];
-					bestRunIndex = i;
-				}
-				mean = mean + icaResults[i];
-			} catch (InterruptedException | ExecutionException e)
+				String fileName = File.separator + pr.toString() + "-" + (useExplorers ? "EICA" : "ICA") + "Run " + (i + 1);
+				ICACallable callable = new ICACallable(pr, fileName, useExplorers, criteria);
+				callable.setAggregateMetrics(metrics);
+				return callable;
+			}, stopping.getMinRuns(), stopping.getMaxRuns(), stopping::isPrecise);
+		reportFailures(batch);
+		
+		double[] statistics = batch.getStatistics().toArray();
+		double[] interval = stopping.getInterval(batch);
+		double[] retval = Arrays.copyOf(statistics, statistics.length + 4);
+		retval[statistics.length] = stopping.getEstimate(batch);
+		retval[statistics.length + 1] = interval[0];
+		retval[statistics.length + 2] = interval[1];
+		retval[statistics.length + 3] = batch.getStatistics().getCount();
+		return retval;
+	}
+	
+	/**
+	 * Compares the original ICA with the ICA that uses explorers (EICA) on a {@link Problem} 
+	 * with common random numbers. The two runs of each pair start from the same seed, so 
+	 * they share their initial population and the random numbers of assimilation and 
+	 * revolution, and all runs are executed in parallel. 
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param noPairs the number of pairs of runs.
+	 * @param criteria the conditions that stop each run early. If <code>null</code>, each
+	 * run will execute all of its decades.
+	 * @return the paired differences of the pairs whose runs both finished and their 
+	 * significance.
+	 */
+	public static PairedComparison compareICAWithEICA(Problem pr, int noPairs, TerminationCriteria criteria)
+	{
+		return compareICAWithEICA(pr, noPairs, criteria, RandomSource.newSeed());
+	}
+	
+	/**
+	 * Compares the original ICA with the ICA that uses explorers (EICA) on a {@link Problem} 
+	 * with common random numbers. The two runs of each pair start from the same seed, so 
+	 * they share their initial population and the random numbers of assimilation and 
+	 * revolution, and all runs are executed in parallel. The seeds of the pairs are drawn 
+	 * from a given seed, so the comparison can be repeated exactly. 
+	 * 
+	 * @param pr a problem that its minimum will be tried to find the ICA algorithm.
+	 * @param noPairs the number of pairs of runs.
+	 * @param criteria the conditions that stop each run early. If <code>null</code>, each
+	 * run will execute all of its decades.
+	 * @param seed the seed that the seeds of the pairs are drawn from.
+	 * @return the paired differences of the pairs whose runs both finished and their 
+	 * significance, with a 95% confidence interval of the mean difference.
+	 */
+	public static PairedComparison compareICAWithEICA(Problem pr, int noPairs, TerminationCriteria criteria, long seed)
+	{
+		if(noPairs <= 0)
+			throw new IllegalArgumentException("Number of pairs must be a positive value.");
+		if(pr == null)
+			throw new IllegalArgumentException("Problem cannot be null.");
+		
+		// Runs 2i and 2i + 1 are the ICA and the EICA run of pair i
+		RandomSource seeds = new RandomSource(seed);
+		List<ICACallable> runs = new ArrayList<ICACallable>();
+		for(int i = 0; i < noPairs; i++)
+		{
+			long pairSeed = seeds.nextLong();
+			for(boolean useExplorers : new boolean[] {false, true})
 			{
-				e.printStackTrace();
+				String fileName = File.separator + pr.toString() + "-" + (useExplorers ? "EICA" : "ICA") + "Pair " + (i + 1);
+				ICACallable callable = new ICACallable(pr, fileName, useExplorers, criteria);
+				callable.setSeed(pairSeed);
+				runs.add(callable);
 			}
 		}
-		mean /= noRun;
-		std = ICAUtils.getSTD(icaResults, mean);
-
-		double[] retval = {best, mean, std, bestRunIndex};
-		executor.shutdown();
-		return retval;
+		
+		BatchResult batch = reportFailures(execute(runs));
+		double[] icaCosts = new double[noPairs], eicaCosts = new double[noPairs];
+		int pairs = 0;
+		for(int i = 0; i < noPairs; i++)
+		{
+			if(!batch.isFinished(2 * i) || !batch.isFinished(2 * i + 1))
+				continue;
+			
+			icaCosts[pairs] = batch.getResult(2 * i).getBestCost();
+			eicaCosts[pairs] = batch.getResult(2 * i + 1).getBestCost();
+			pairs++;
+		}
+		
+		return new PairedComparison(Arrays.copyOf(icaCosts, pairs), Arrays.copyOf(eicaCosts, pairs), 0.95);
+	}
+	
+	/**
+	 * Cancels all batches of runs that are in progress. Runs that have not started are dropped 
+	 * and runs in progress stop at the end of their current decade. The methods that started 
+	 * the batches return the statistics of the runs that finished. 
+	 */
+	public static void cancel()
+	{
+		scheduler.cancel();
+	}
+	
+	/**
+	 * Prints the exceptions of the runs of a batch that failed, for the methods that only 
+	 * return the statistics of the runs that finished. 
+	 * @param batch the result of the batch.
+	 * @return the result of the batch.
+	 */
+	private static BatchResult reportFailures(BatchResult batch)
+	{
+		for(int run : batch.getFailedRuns())
+		{
+			System.err.println("Run " + (run + 1) + " has failed:");
+			batch.getFailure(run).printStackTrace();
+		}
+		
+		return batch;
+	}
+	
+	/**
+	 * Executes a batch of runs on the scheduler of this class and waits for them to finish. 
+	 * @param runs the runs of the batch.
+	 * @return the result of the batch.
+	 */
+	private static BatchResult execute(List<ICACallable> runs)
+	{
+		return execute(runs, Double.NEGATIVE_INFINITY);
+	}
+	
+	/**
+	 * Executes a batch of runs on the scheduler of this class that is cancelled when one of 
+	 * its runs reaches a target cost, and waits for the runs to finish or stop. 
+	 * @param runs the runs of the batch.
+	 * @param targetCost the cost at or below which a finished run cancels the batch.
+	 * @return the result of the batch.
+	 */
+	private static BatchResult execute(List<ICACallable> runs, double targetCost)
+	{
+		for(ICACallable run : runs)
+			run.setAggregateMetrics(metrics);
+		
+		return scheduler.execute(runs, targetCost);
 	}
 }
@@ -18,9 +18,6 @@
 
 package ica;
 
-import java.util.Arrays;
-import java.util.Random;
-
 import problem.Problem;
 
 import static ica.ICAUtils.*;
@@ -34,10 +31,9 @@ class Empire
 {
 	// Empire variables
 	private int problemDimension;
-	private double[] imperialistPosition = new double[problemDimension];
+	private double[] imperialistPosition;
 	private double imperialistCost;
-	private double[][] coloniesPosition;
-	private double[] coloniesCost;
+	private ColonyStore colonies;
 	private double totalCost;
 	private double zeta;
 	private int inoc = -1;
@@ -47,6 +43,55 @@ class Empire
 	private Problem problem;
 	private double revolutionRate = 0.1;
 	
+	/**
+	 * A scratch buffer for holding a single position.
+	 */
+	private double[] positionBuffer;
+	
+	/**
+	 * A scratch buffer for the candidate sites of the explorers.
+	 */
+	private double[] siteBuffer;
+	
+	/**
+	 * A scratch buffer for the random numbers that assimilate one colony.
+	 */
+	private double[] randomBuffer;
+	
+	/**
+	 * A scratch buffer for the indexes of the revolving colonies. It grows with the number of
+	 * colonies.
+	 */
+	private int[] permutationBuffer = new int[16];
+	
+	/**
+	 * A scratch store that new positions of revolving colonies are generated in so that
+	 * they can be evaluated in one batch.
+	 */
+	private ColonyStore revolvedColonies;
+	
+	/**
+	 * The random number generator of this empire. It is used when the empires of an 
+	 * algorithm are evolved concurrently so that the result does not depend on the 
+	 * order in which empires are processed.
+	 */
+	private RandomSource random;
+	
+	/**
+	 * The random number generator of the explorers of this empire. It is split from the 
+	 * generator of the empire so that dispatching explorers does not shift the numbers that 
+	 * assimilation and revolution draw, and runs with and without explorers that start from 
+	 * the same seed share those numbers.
+	 */
+	private RandomSource explorerRandom;
+	
+	/**
+	 * The sum of the squared distances between the colonies and the imperialist. It is measured 
+	 * while colonies are assimilated and every other change of the colonies or the imperialist 
+	 * updates it, so it always matches the current empire without an extra pass per decade.
+	 */
+	private double colonySpread = 0;
+	
 	/**
 	 * Constructor
 	 * @param problemDimension
@@ -58,6 +103,12 @@ class Empire
 		this.lowerBounds = problem.getLowerBounds();
 		this.upperBounds = problem.getUpperBounds();
 		this.zeta = zeta;
+		this.imperialistPosition = new double[problemDimension];
+		this.positionBuffer = new double[problemDimension];
+		this.siteBuffer = new double[problemDimension];
+		this.randomBuffer = new double[problemDimension];
+		this.colonies = new ColonyStore(problemDimension, 16);
+		this.revolvedColonies = new ColonyStore(problemDimension, 16);
 	}
 	
 	public Empire(double zeta, Problem problem, double revolutionRate, double dampRatio)
@@ -68,38 +119,67 @@ class Empire
 	}
 	
 	// Best answer so far
-	public void dispatchExplorers6(double power, int decade, Random R)
+	public void dispatchExplorers6(double power, int decade, RandomSource R)
 	{
 		int noe = (int)(power * problem.getDimension());
 		if(noe == 0)
 			noe = 1;
 		
-		double[] newSite, bestSite = findNewSiteImperialist();
-		double bestSiteCost = problem.valueAt(bestSite);
+		// Each explorer changes one coordinate of the imperialist. For a separable problem its 
+		// cost is updated from the cost of the imperialist in constant time. Otherwise, the 
+		// candidate is built in a scratch copy of the imperialist and evaluated in full.
+		boolean separable = problem.isSeparable();
+		if(!separable)
+			System.arraycopy(imperialistPosition, 0, siteBuffer, 0, problemDimension);
 		
-		for(;noe > 1; noe--)
+		int bestParam = -1;
+		double bestValue = 0, bestSiteCost = Double.POSITIVE_INFINITY;
+		for(;noe > 0; noe--)
 		{
-			newSite = findNewSiteImperialist();
-			if(problem.valueAt(newSite) < bestSiteCost)
+			double r = ((double) R.nextDouble()*32767 / ((double)(32767)+(double)(1)) );
+			int param2change = (int)(r * problemDimension);
+			double newValue = findNewSiteImperialist(param2change, R);
+			
+			double newSiteCost;
+			if(separable)
+				newSiteCost = problem.valueAfterChange(imperialistCost, imperialistPosition, param2change, newValue);
+			else
 			{
-				bestSite = newSite;
-				bestSiteCost = problem.valueAt(newSite);
+				siteBuffer[param2change] = newValue;
+				newSiteCost = problem.valueAt(siteBuffer);
+				siteBuffer[param2change] = imperialistPosition[param2change];
 			}
+			
+			if(newSiteCost < bestSiteCost)
+			{
+				bestParam = param2change;
+				bestValue = newValue;
+				bestSiteCost = newSiteCost;
+			}
+		}
+		
+		if(separable && bestSiteCost < imperialistCost)
+		{
+			// Evaluate the chosen site exactly so that rounding errors of the updates do not 
+			// accumulate in the cost of the imperialist.
+			System.arraycopy(imperialistPosition, 0, siteBuffer, 0, problemDimension);
+			siteBuffer[bestParam] = bestValue;
+			bestSiteCost = problem.valueAt(siteBuffer);
 		}
 		
 		if(bestSiteCost < imperialistCost)
 		{
-			double r = ( (double)Math.random()*32767 / ((double)(32767)+(double)(1)) );
+			double r = ( (double)R.nextDouble()*32767 / ((double)(32767)+(double)(1)) );
 		    int ctbr = (int)(r * getNumberOfColonies()); // colony to be replaced
-		    double[] x = coloniesPosition[ctbr];
-			setColonyPosition(ctbr, imperialistPosition);
-			imperialistPosition = bestSite;
+		    double[] x = colonies.copyPosition(ctbr, positionBuffer);
+		    double xCost = colonies.getCost(ctbr);
+			setColonyPosition(ctbr, imperialistPosition, imperialistCost);
+			moveImperialist(bestParam, bestValue);
 			imperialistCost = bestSiteCost;
-			r = Math.random();
+			r = R.nextDouble();
 			if( r < power * Math.pow(inoc / (double)(getNumberOfColonies()), 2))/*Math.random() < Math.exp(-1 * power * getNumberOfColonies() ) && Math.random() < .03)*/
 			{	
-				coloniesPosition = ICAUtils.add(coloniesPosition, x);
-				coloniesCost = ICAUtils.add(coloniesCost, problem.valueAt(x));
+				addColony(x, xCost);
 			}
 			//System.out.println("Decade: " + decade + ". Best site.");
 			
@@ -107,37 +187,130 @@ class Empire
 		}
 	}
 
-	private double[] findNewSiteImperialist()
+	/**
+	 * Computes a new value for a coordinate of the imperialist by moving it towards or away 
+	 * from the same coordinate of a random colony. 
+	 * @param param2change the coordinate that is changed.
+	 * @param R the random number generator.
+	 * @return the new value of the coordinate, clamped to the bounds of the problem.
+	 */
+	private double findNewSiteImperialist(int param2change, RandomSource R)
 	{
-		double r = ((double) Math.random()*32767 / ((double)(32767)+(double)(1)) );
-		int param2change = (int)(r * problemDimension);
-		
-		r = (   (double)Math.random()*32767 / ((double)(32767)+(double)(1)) );
+		double r = (   (double)R.nextDouble()*32767 / ((double)(32767)+(double)(1)) );
 	    int neighbour=(int)(r * getNumberOfColonies());
-	     
-	    double[] site = new double[this.problemDimension];
-	    System.arraycopy(imperialistPosition, 0, site, 0, problemDimension);
 	    
-	    r = (   (double)Math.random()*32767 / ((double)(32767)+(double)(1)) );
+	    r = (   (double)R.nextDouble()*32767 / ((double)(32767)+(double)(1)) );
 	    
-	    site[param2change] = site[param2change] + (r - .5) * 2 * (site[param2change] - coloniesPosition[neighbour][param2change]);
-	    if(site[param2change] > problem.getUpperBound(param2change))
-	    	site[param2change] = problem.getUpperBound(param2change);
-	    else if(site[param2change] < problem.getLowerBound(param2change))
-	    	site[param2change] = problem.getLowerBound(param2change);
+	    double site = imperialistPosition[param2change];
+	    site = site + (r - .5) * 2 * (site - colonies.get(neighbour, param2change));
+	    if(site > problem.getUpperBound(param2change))
+	    	site = problem.getUpperBound(param2change);
+	    else if(site < problem.getLowerBound(param2change))
+	    	site = problem.getLowerBound(param2change);
 	    
 	    return site;
 	}
 	
+	/**
+	 * Returns the random number generator of this empire. 
+	 * @return the random number generator of this empire or <code>null</code> if it is not set.
+	 */
+	public RandomSource getRandom()
+	{
+		return random;
+	}
+
+	/**
+	 * Returns the random number generator of the explorers of this empire. 
+	 * @return the random number generator of the explorers or <code>null</code> if it is not set.
+	 */
+	public RandomSource getExplorerRandom()
+	{
+		return explorerRandom;
+	}
+
+	/**
+	 * Sets the random number generator of this empire. The generator of the explorers of 
+	 * the empire is split from it. 
+	 * @param random the random number generator that this empire will own. 
+	 */
+	public void setRandom(RandomSource random)
+	{
+		this.random = random;
+		this.explorerRandom = random.split();
+	}
+	
+	/**
+	 * Returns the position of the imperialist. The returned array is owned by this empire and
+	 * its content may change when the imperialist changes. 
+	 * @return the position of the imperialist.
+	 */
 	public double[] getImperialistPosition() 
 	{
 		return imperialistPosition;
 	}
 
+	/**
+	 * Sets the position of the imperialist. The given position is copied. 
+	 * @param imperialistPosition the new position of the imperialist.
+	 */
 	public void setImperialistPosition(double[] imperialistPosition) 
 	{
-		this.imperialistPosition = imperialistPosition;
-		this.imperialistCost = problem.valueAt(imperialistPosition);
+		setImperialistPosition(imperialistPosition, problem.valueAt(imperialistPosition));
+	}
+	
+	/**
+	 * Sets the position of the imperialist whose cost is already known. The given position
+	 * is copied and is not evaluated again. 
+	 * @param imperialistPosition the new position of the imperialist.
+	 * @param imperialistCost the cost of the new position.
+	 */
+	public void setImperialistPosition(double[] imperialistPosition, double imperialistCost) 
+	{
+		System.arraycopy(imperialistPosition, 0, this.imperialistPosition, 0, problemDimension);
+		this.imperialistCost = imperialistCost;
+		measureColonySpread();
+	}
+	
+	/**
+	 * Changes one coordinate of the imperialist and updates the spread of the colonies for the
+	 * change of that coordinate only. 
+	 * @param coordinate the coordinate that is changed.
+	 * @param value the new value of the coordinate.
+	 */
+	private void moveImperialist(int coordinate, double value)
+	{
+		double[] positions = colonies.getPositions();
+		double oldValue = imperialistPosition[coordinate];
+		for(int i = 0, n = getNumberOfColonies(); i < n; i++)
+		{
+			double x = positions[colonies.offsetOf(i) + coordinate];
+			double oldDistance = oldValue - x, newDistance = value - x;
+			colonySpread += newDistance * newDistance - oldDistance * oldDistance;
+		}
+		imperialistPosition[coordinate] = value;
+	}
+	
+	/**
+	 * Exchanges the imperialist with one of the colonies of this empire. The positions and
+	 * costs are swapped in place and nothing is evaluated. 
+	 * @param colonyIndex index of the colony that will become the imperialist.
+	 */
+	public void swapImperialistWithColony(int colonyIndex)
+	{
+		double[] positions = colonies.getPositions();
+		int offset = colonies.offsetOf(colonyIndex);
+		for(int j = 0; j < problemDimension; j++)
+		{
+			double t = imperialistPosition[j];
+			imperialistPosition[j] = positions[offset + j];
+			positions[offset + j] = t;
+		}
+		
+		double t = imperialistCost;
+		imperialistCost = colonies.getCost(colonyIndex);
+		colonies.setCost(colonyIndex, t);
+		measureColonySpread();
 	}
 
 	
@@ -146,33 +319,82 @@ class Empire
 		return imperialistCost;
 	}
 	
-	public double[][] getColoniesPosition() 
+	/**
+	 * Returns the store that holds the positions and costs of the colonies of this empire.
+	 * The returned object is not a copy. 
+	 * @return the colonies of this empire.
+	 */
+	public ColonyStore getColonies() 
 	{
-		return coloniesPosition;
+		return colonies;
 	}
 
+	/**
+	 * Replaces all colonies of this empire with the given positions and evaluates them.
+	 * @param coloniesPosition a matrix that each row of it is the position of a colony. 
+	 * The rows are copied. 
+	 */
 	public void setColoniesPosition(double[][] coloniesPosition) 
 	{
-		this.coloniesPosition = coloniesPosition;
+		colonies.clear();
+		colonies.ensureCapacity(coloniesPosition.length);
+		for(int i = 0; i < coloniesPosition.length; i++)
+			colonies.add(coloniesPosition[i], 0);
 		updateColoniesCost();
+		measureColonySpread();
+		if(inoc == -1)
+			inoc = coloniesPosition.length;
+	}
+	
+	/**
+	 * Replaces all colonies of this empire with the given positions whose costs are already
+	 * known. The positions are not evaluated again.
+	 * @param coloniesPosition a matrix that each row of it is the position of a colony. 
+	 * The rows are copied. 
+	 * @param coloniesCost the costs of the given positions.
+	 */
+	public void setColoniesPosition(double[][] coloniesPosition, double[] coloniesCost) 
+	{
+		if(coloniesPosition.length != coloniesCost.length)
+			throw new IllegalArgumentException("Number of positions and costs must be equal");
+		
+		colonies.clear();
+		colonies.ensureCapacity(coloniesPosition.length);
+		for(int i = 0; i < coloniesPosition.length; i++)
+			colonies.add(coloniesPosition[i], coloniesCost[i]);
+		measureColonySpread();
 		if(inoc == -1)
 			inoc = coloniesPosition.length;
 	}
 
-	public double[] getColoniesCost() 
+	/**
+	 * Replaces all colonies of this empire with a selection of countries whose positions are
+	 * stored one after another in an array and whose costs are already known. The positions
+	 * are not evaluated again.
+	 * @param positions the positions of the countries. The selected positions are copied.
+	 * @param costs the costs of the countries.
+	 * @param indexes the indexes of the countries; the countries at
+	 * <code>indexes[from]</code> to <code>indexes[to - 1]</code> become the colonies.
+	 * @param from the first element of <code>indexes</code> that is used.
+	 * @param to the element of <code>indexes</code> after the last one that is used.
+	 */
+	public void setColoniesPosition(double[] positions, double[] costs, int[] indexes, int from, int to) 
 	{
-		return coloniesCost;
+		colonies.clear();
+		colonies.ensureCapacity(to - from);
+		for(int i = from; i < to; i++)
+			colonies.add(positions, indexes[i] * problemDimension, costs[indexes[i]]);
+		measureColonySpread();
+		if(inoc == -1)
+			inoc = to - from;
 	}
 
 	private void updateColoniesCost() 
 	{
-		if((coloniesCost == null) || (coloniesCost.length != coloniesPosition.length))
-			coloniesCost = new double[coloniesPosition.length];
-		
-		for(int i = 0; i < coloniesCost.length; i++)
-			this.coloniesCost[i] = problem.valueAt(coloniesPosition[i]);
+		problem.valuesAt(colonies.getPositions(), colonies.size(), colonies.getCosts());
+		colonies.costsChanged();
 	}
-
+	
 	public double getTotalCost() 
 	{
 		return totalCost;
@@ -180,113 +402,113 @@ class Empire
 	
 	public void updateTotalCost()
 	{
-		double mean = ICAUtils.getMean(coloniesCost);
+		double mean = colonies.getCostSum() / colonies.size();
 		this.totalCost = imperialistCost + zeta * mean;
 	}
 
 	public void setColonyPosition(int colonyIndex, double[] position) 
 	{
-		this.coloniesPosition[colonyIndex] = position;
-		this.coloniesCost[colonyIndex] = problem.valueAt(position);
+		setColonyPosition(colonyIndex, position, problem.valueAt(position));
 	}
-
-	public int getNumberOfColonies()
+	
+	/**
+	 * Sets the position of a colony whose cost is already known. The position is not 
+	 * evaluated again.
+	 * @param colonyIndex index of the colony.
+	 * @param position the new position of the colony. The array is copied.
+	 * @param cost the cost of the new position.
+	 */
+	public void setColonyPosition(int colonyIndex, double[] position, double cost) 
 	{
-		return this.coloniesCost.length;
+		colonySpread -= squaredDistanceToImperialist(colonyIndex);
+		colonies.setPosition(colonyIndex, position);
+		colonies.setCost(colonyIndex, cost);
+		colonySpread += squaredDistanceToImperialist(colonyIndex);
 	}
-		
-	public void asssimilateColonies(double assimilationCoefficient, Random r)
+	
+	/**
+	 * Adds a new colony to this empire and evaluates it.
+	 * @param position the position of the new colony. The array is copied. 
+	 */
+	public void addColony(double[] position)
 	{
-		Empire theEmpire = this;
-
-		int numOfColonies = theEmpire.getNumberOfColonies();
-
-		// Create an array containing the distance between the imperialist and the colonies
-		double[][] repmatArray = repmat(theEmpire.getImperialistPosition(), numOfColonies);
-		double[][] array = new double[numOfColonies][problemDimension];
-		for(int i=0; i<numOfColonies; i++)
-		{
-			for(int j=0; j<problemDimension; j++)
-			{
-				// Calculate the distance of each colony from the empire
-				array[i][j] = repmatArray[i][j] - theEmpire.getColoniesPosition()[i][j];
-			}
-		}
-
-		// Create a new array to store the updated colonies positions
-		double[][] coloniesPosition = new double[numOfColonies][problemDimension];
-
-		// Fill the array
-		for(int i=0; i<array.length; i++)
-		{
-			for(int j=0; j<array[0].length; j++)
-			{
-				coloniesPosition[i][j] = theEmpire.getColoniesPosition()[i][j] + 2 * assimilationCoefficient * r.nextDouble() * array[i][j];
-				if(coloniesPosition[i][j] < this.lowerBounds[j])
-					coloniesPosition[i][j] = this.lowerBounds[j];
-				if(coloniesPosition[i][j] > this.upperBounds[j])
-					coloniesPosition[i][j] = this.upperBounds[j];
-			}
-		}
-		setColoniesPosition(coloniesPosition);
+		addColony(position, problem.valueAt(position));
 	}
 	
 	/**
-	 * Removes a position from the colony costs vector
-	 * @param colonyCosts
-	 * @param indexToRemove
-	 * @return the updated costs vector
+	 * Adds a new colony whose cost is already known to this empire. 
+	 * @param position the position of the new colony. The array is copied. 
+	 * @param cost the cost of the new colony.
 	 */
-	private double[] removeColonyCost(int indexToRemove)
+	public void addColony(double[] position, double cost)
 	{
-		// Create a new vector to store the updated costs
-		double[] newColonyCosts = new double[coloniesCost.length-1];
-
-		// Copy in it the costs before the colony to remove
-		for(int i=0; i<indexToRemove; i++)
-		{
-			newColonyCosts[i] = coloniesCost[i];
-		}
-
-		// Then copy the rest of the costs, without including to colony to remove
-		for(int j = indexToRemove; j < newColonyCosts.length; j++)
-		{
-			newColonyCosts[j] = coloniesCost[j+1];
-		}
-
-		coloniesCost = newColonyCosts;
-		// Return the updated costs
-		return newColonyCosts;
+		colonySpread += squaredDistanceToImperialist(colonies.add(position, cost));
+	}
+	
+	/**
+	 * Adds a colony of another store to the colonies of this empire. The colony is moved
+	 * with its cost and is not evaluated again.
+	 * @param source the store that holds the colony. 
+	 * @param colonyIndex index of the colony in <code>source</code>. 
+	 */
+	public void addColony(ColonyStore source, int colonyIndex)
+	{
+		colonySpread += squaredDistanceToImperialist(colonies.add(source, colonyIndex));
 	}
 	
 	/**
-	 * Removes a position from the colony positions array
-	 * @param colonyPositions
-	 * @param indexToRemove
-	 * @return the updated positions
+	 * Adds all colonies of another store to the colonies of this empire. The colonies are 
+	 * moved with their costs and are not evaluated again.
+	 * @param source the store whose colonies will be added. 
 	 */
-	private double[][] removeColonyPosition(int indexToRemove)
+	public void addColonies(ColonyStore source)
 	{
-		double[][] newColonyPositions = new double[coloniesPosition.length-1][coloniesPosition[0].length];
+		int first = getNumberOfColonies();
+		colonies.addAll(source);
+		for(int i = first, n = getNumberOfColonies(); i < n; i++)
+			colonySpread += squaredDistanceToImperialist(i);
+	}
 
-		for(int i=0; i<indexToRemove; i++)
-		{
-			newColonyPositions[i] = coloniesPosition[i];
-		}
+	public int getNumberOfColonies()
+	{
+		return colonies.size();
+	}
+		
+	public void asssimilateColonies(double assimilationCoefficient, RandomSource r)
+	{
+		int numOfColonies = getNumberOfColonies();
+		double[] positions = colonies.getPositions();
+		double spread = 0;
 
-		for(int j=indexToRemove; j<newColonyPositions.length; j++)
+		for(int i=0; i<numOfColonies; i++)
 		{
-			newColonyPositions[j] = coloniesPosition[j+1];
+			int offset = colonies.offsetOf(i);
+			r.nextDoubles(randomBuffer, problemDimension);
+			for(int j=0; j<problemDimension; j++)
+			{
+				// Move the colony towards the imperialist by a random fraction of their distance
+				double x = positions[offset + j];
+				x = x + 2 * assimilationCoefficient * randomBuffer[j] * (imperialistPosition[j] - x);
+				if(x < this.lowerBounds[j])
+					x = this.lowerBounds[j];
+				if(x > this.upperBounds[j])
+					x = this.upperBounds[j];
+				positions[offset + j] = x;
+				
+				double d = imperialistPosition[j] - x;
+				spread += d * d;
+			}
 		}
-
-		coloniesPosition = newColonyPositions;
-		return newColonyPositions;
+		colonySpread = spread;
+		updateColoniesCost();
 	}
 	
 	public void removeColony(int indexToRemove)
 	{
-		removeColonyPosition(indexToRemove);
-		removeColonyCost(indexToRemove);
+		colonySpread -= squaredDistanceToImperialist(indexToRemove);
+		colonies.remove(indexToRemove);
+		if(getNumberOfColonies() == 0)
+			colonySpread = 0;
 	}
 	
 	/**
@@ -295,36 +517,75 @@ class Empire
 	 * into local minima.
 	 * @param theEmpire to revolve
 	 */
-	public void revolveColonies(Random r)
+	public void revolveColonies(RandomSource r)
 	{
 		revolutionRate = dampRatio * revolutionRate;
 		int numOfRevolvingColonies = (int) Math.round((revolutionRate * getNumberOfColonies()));
 
-		// Create a new array with new random positions for the revolving colonies
-		double[][] revolvedPosition = this.generateNewCountries(numOfRevolvingColonies, r);
+		// Generate new random positions for the revolving colonies and evaluate them in one batch.
+		// The positions are stored contiguously, so their random numbers are drawn in one fill.
+		revolvedColonies.setSize(numOfRevolvingColonies);
+		double[] positions = revolvedColonies.getPositions();
+		r.nextDoubles(positions, numOfRevolvingColonies * problemDimension);
+		for(int i=0; i<numOfRevolvingColonies; i++)
+		{
+			int offset = revolvedColonies.offsetOf(i);
+			for(int j=0; j<problemDimension; j++)
+			{
+				positions[offset + j] = (this.upperBounds[j] - this.lowerBounds[j]) * positions[offset + j] + this.lowerBounds[j];
+			}
+		}
+		problem.valuesAt(positions, numOfRevolvingColonies, revolvedColonies.getCosts());
 
-		// Generate a vector with integer values in a random order
-		int[] R = randperm(getNumberOfColonies(), r);
-		R = Arrays.copyOfRange(R, 0, numOfRevolvingColonies);
+		// Select the colonies that revolve in a random order
+		int numOfColonies = getNumberOfColonies();
+		if(permutationBuffer.length < numOfColonies)
+			permutationBuffer = new int[Math.max(numOfColonies, 2 * permutationBuffer.length)];
+		int[] R = randperm(numOfColonies, numOfRevolvingColonies, r, permutationBuffer);
 
 		// Update the positions of the revolved colonies of the empire
-		for(int i=0; i<R.length; i++)
+		for(int i=0; i<numOfRevolvingColonies; i++)
 		{
-			setColonyPosition(R[i], revolvedPosition[i]);
+			colonySpread -= squaredDistanceToImperialist(R[i]);
+			colonies.set(R[i], revolvedColonies, i);
+			colonySpread += squaredDistanceToImperialist(R[i]);
 		}
 	}
 
-	private double[][] generateNewCountries(int numberOfCountries, Random r) 
+	/**
+	 * Returns the sum of the squared distances between the colonies and the imperialist. The 
+	 * value is kept up to date as the empire changes and is not computed on each call. 
+	 * @return the spread of the colonies.
+	 */
+	public double getColonySpread()
+	{
+		return colonySpread;
+	}
+	
+	/**
+	 * Measures the spread of the colonies again from their positions. It is used when the 
+	 * imperialist or all colonies are replaced. 
+	 */
+	private void measureColonySpread()
+	{
+		double spread = 0;
+		for(int i = 0, n = getNumberOfColonies(); i < n; i++)
+			spread += squaredDistanceToImperialist(i);
+		colonySpread = spread;
+	}
+	
+	private double squaredDistanceToImperialist(int colonyIndex)
 	{
-		double[][] countriesArray = new double[numberOfCountries][problemDimension];  
-		for(int i=0; i<numberOfCountries; i++)
+		double[] positions = colonies.getPositions();
+		int offset = colonies.offsetOf(colonyIndex);
+		double sum = 0;
+		for(int j = 0; j < problemDimension; j++)
 		{
-			for(int j=0; j<problemDimension; j++)
-			{
-				countriesArray[i][j] = (this.upperBounds[j] - this.lowerBounds[j]) * r.nextDouble() + this.lowerBounds[j];
-			}
+			double d = imperialistPosition[j] - positions[offset + j];
+			sum += d * d;
 		}
-		return countriesArray;
+		
+		return sum;
 	}
 
 	/**
@@ -0,0 +1,182 @@
+package ica;
+
+/**
+ * A registry of the total costs of the empires of an algorithm from which the powers of the
+ * empires are derived. The power of an empire is its distance from the total cost of the
+ * weakest empire, so the registry keeps the total costs in a Fenwick tree for the sums of
+ * powers and in a tournament tree for the weakest empire. An update of one empire costs
+ * O(log E), a normalized power is looked up in O(1) and an empire is sampled with a
+ * probability proportional to its power in O(log E), where E is the number of empires.
+ *
+ * <p>The registry is rebuilt in O(E) whenever the list of empires changes. Updates are
+ * applied as differences, so rounding errors can accumulate in the sums between rebuilds;
+ * the algorithm rebuilds the registry at the start of every decade.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+class EmpirePowers
+{
+	private int size;
+	private double[] costs;
+	private double totalCost;
+
+	/**
+	 * The Fenwick tree of the costs. Element <code>i</code> holds the sum of the costs of the
+	 * <code>i & -i</code> empires that end at empire <code>i - 1</code>.
+	 */
+	private double[] fenwick;
+
+	/**
+	 * The tournament tree of the costs. The leaves start at {@link #leaves} and hold the index
+	 * of an empire or -1; each inner node holds the index of the weaker empire of its children.
+	 */
+	private int[] weakest;
+	private int leaves;
+
+	/**
+	 * Creates a registry.
+	 * @param capacity the number of empires that the registry can hold without growing.
+	 */
+	EmpirePowers(int capacity)
+	{
+		allocate(Math.max(capacity, 1));
+	}
+
+	/**
+	 * Replaces the content of the registry with the total costs of a list of empires.
+	 * @param empires the empires.
+	 * @param numOfEmpires the number of empires at the start of the array.
+	 */
+	void build(Empire[] empires, int numOfEmpires)
+	{
+		size = numOfEmpires;
+		if(size > costs.length)
+			allocate(size);
+
+		totalCost = 0;
+		for(int i = 0; i < size; i++)
+		{
+			costs[i] = empires[i].getTotalCost();
+			fenwick[i + 1] = costs[i];
+			totalCost += costs[i];
+		}
+		for(int i = 1; i <= size; i++)
+		{
+			int parent = i + (i & -i);
+			if(parent <= size)
+				fenwick[parent] += fenwick[i];
+		}
+
+		for(int i = 0; i < leaves; i++)
+			weakest[leaves + i] = i < size ? i : -1;
+		for(int node = leaves - 1; node > 0; node--)
+			weakest[node] = weaker(weakest[2 * node], weakest[2 * node + 1]);
+	}
+
+	/**
+	 * Records the new total cost of an empire.
+	 * @param index the index of the empire.
+	 * @param cost the total cost of the empire.
+	 */
+	void update(int index, double cost)
+	{
+		double delta = cost - costs[index];
+		costs[index] = cost;
+		totalCost += delta;
+		for(int i = index + 1; i <= size; i += i & -i)
+			fenwick[i] += delta;
+
+		for(int node = (leaves + index) / 2; node > 0; node /= 2)
+			weakest[node] = weaker(weakest[2 * node], weakest[2 * node + 1]);
+	}
+
+	/**
+	 * Returns the number of empires in the registry.
+	 * @return the number of empires.
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the index of the weakest empire, the one with the highest total cost. Ties are
+	 * broken in favour of the lower index.
+	 * @return the index of the weakest empire.
+	 */
+	int getWeakest()
+	{
+		return weakest[1];
+	}
+
+	/**
+	 * Returns the normalized power of an empire, as it is used by the explorers and for the
+	 * creation of the initial empires: the power is <code>1.3 * max - cost</code>, or
+	 * <code>0.7 * max - cost</code> if the highest total cost <code>max</code> is not positive,
+	 * divided by the sum of the powers of all empires.
+	 * @param index the index of the empire.
+	 * @return the normalized power of the empire.
+	 */
+	double getNormalizedPower(int index)
+	{
+		double maxCost = costs[getWeakest()];
+		double scaledMax = (maxCost > 0 ? 1.3 : 0.7) * maxCost;
+		return (scaledMax - costs[index]) / (scaledMax * size - totalCost);
+	}
+
+	/**
+	 * Selects an empire with a probability that is proportional to its power in the
+	 * imperialistic competition, <code>max - cost</code>. If all empires have the same power,
+	 * each of them is equally likely.
+	 * @param u a random number between zero (inclusive) and one (exclusive).
+	 * @return the index of the selected empire.
+	 */
+	int sample(double u)
+	{
+		double maxCost = costs[getWeakest()];
+		double totalPower = maxCost * size - totalCost;
+		if(!(totalPower > 0))
+			return (int)(u * size);
+
+		// Descend the Fenwick tree; the power of a node is its width times the highest cost
+		// minus the sum of its costs
+		double target = u * totalPower;
+		int position = 0;
+		for(int step = Integer.highestOneBit(size); step > 0; step >>= 1)
+		{
+			int next = position + step;
+			if(next > size)
+				continue;
+
+			double power = step * maxCost - fenwick[next];
+			if(power <= target)
+			{
+				target -= power;
+				position = next;
+			}
+		}
+
+		return Math.min(position, size - 1);
+	}
+
+	private int weaker(int a, int b)
+	{
+		if(a < 0)
+			return b;
+		if(b < 0)
+			return a;
+
+		return costs[b] > costs[a] ? b : a;
+	}
+
+	private void allocate(int capacity)
+	{
+		costs = new double[capacity];
+		fenwick = new double[capacity + 1];
+		leaves = Integer.highestOneBit(capacity);
+		if(leaves < capacity)
+			leaves <<= 1;
+		weakest = new int[2 * leaves];
+	}
+}
@@ -1,6 +1,7 @@
 package ica;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import problem.Problem;
 
@@ -10,14 +11,19 @@ import problem.Problem;
  * @author Mazhar Ansari Ardeh
  *
  */
-class ICACallable implements Callable<Double>
+class ICACallable implements Callable<ICAResult>
 {
 	private Problem pr = null;
 	private String logFileName = null;
 	private boolean useExplorers = false;
 	private double[][] initialPopulation;
+	private InitialPopulation population;
 	private int numOfEmpires;
 	private String path;
+	private TerminationCriteria criteria;
+	private PhaseMetrics aggregateMetrics;
+	private long seed = RandomSource.newSeed();
+	private AtomicBoolean cancellation;
 	
 	/**
 	 * Creates an instance of {@link ICACallable}. This constructor will use the original 
@@ -40,6 +46,21 @@ class ICACallable implements Callable<Double>
 	 * explorers for optimization and otherwise, ordinary the original ICA will be used.
 	 */
 	public ICACallable(Problem pr, String logFileName, boolean useExplorers)
+	{
+		this(pr, logFileName, useExplorers, null);
+	}
+	
+	/**
+	 * Creates an instance of {@link ICACallable} whose run can stop early.
+	 * @param pr a {@link Problem} object that this object will run ICA optimization on it. 
+	 * @param logFileName the name of the log file that the {@link ICAlgorithm} object will
+	 * use for logging.
+	 * @param useExplorers if <code>true</code> the object will use the modified ICA and exploits 
+	 * explorers for optimization and otherwise, ordinary the original ICA will be used.
+	 * @param criteria the conditions that stop the run early. If <code>null</code>, the run
+	 * will execute all of its decades.
+	 */
+	public ICACallable(Problem pr, String logFileName, boolean useExplorers, TerminationCriteria criteria)
 	{
 		if(pr == null || logFileName == null || logFileName.trim().length() == 0)
 			throw new IllegalArgumentException("The given parameter cannot be null or empty.");
@@ -47,6 +68,7 @@ class ICACallable implements Callable<Double>
 		this.pr = pr;
 		this.logFileName = logFileName;
 		this.useExplorers = useExplorers;
+		this.criteria = criteria;
 	}
 
 	/**
@@ -64,6 +86,28 @@ class ICACallable implements Callable<Double>
 	 * given initial population of colonies. 
 	 */
 	public ICACallable(Problem pr, String path, String fileName, boolean useExplorers, double[][] initialPopulation, int numOfEmpires)
+	{
+		this(pr, path, fileName, useExplorers, initialPopulation, numOfEmpires, null);
+	}
+	
+	/**
+	 * Creates an instance of {@link ICACallable} which receives an initial population of 
+	 * colonies and whose run can stop early. 
+	 * @param pr a {@link Problem} object that this object will run ICA optimization on it. 
+	 * @param the location that log files will be saved to. If null or an empty string is 
+	 * passed to it, a default value will be used. 
+	 * @param logFileName the name of the log file that the {@link ICAlgorithm} object will
+	 * use for logging.
+	 * @param useExplorers if <code>true</code> the object will use the modified ICA and exploits 
+	 * explorers for optimization and otherwise, ordinary the original ICA will be used.
+	 * @param initialPopulation the initial population of colonies for the ICA algorithm. 
+	 * @param numOfEmpires the number of empires that the ICA algorithm should select from the
+	 * given initial population of colonies. 
+	 * @param criteria the conditions that stop the run early. If <code>null</code>, the run
+	 * will execute all of its decades.
+	 */
+	public ICACallable(Problem pr, String path, String fileName, boolean useExplorers, double[][] initialPopulation, int numOfEmpires,
+					   TerminationCriteria criteria)
 	{
 		if(pr == null || fileName == null || fileName.trim().length() == 0)
 			throw new IllegalArgumentException("The given parameter cannot be null or empty.");
@@ -76,22 +120,82 @@ class ICACallable implements Callable<Double>
 		this.initialPopulation = ICAUtils.copyMatrix(initialPopulation);
 		this.numOfEmpires = numOfEmpires;
 		this.path = path;
+		this.criteria = criteria;
 	}
 
 	/**
-	 * Computes ICA optimization and returns the minimum value found. 
+	 * Creates an instance of {@link ICACallable} which receives an initial population of 
+	 * colonies that is already evaluated. The population is shared, not copied. 
+	 * @param pr a {@link Problem} object that this object will run ICA optimization on it. 
+	 * @param path the location that log files will be saved to. If null or an empty string is 
+	 * passed to it, a default value will be used. 
+	 * @param fileName the name of the log file that the {@link ICAlgorithm} object will
+	 * use for logging.
+	 * @param useExplorers if <code>true</code> the object will use the modified ICA and exploits 
+	 * explorers for optimization and otherwise, ordinary the original ICA will be used.
+	 * @param population the evaluated initial population of colonies for the ICA algorithm. 
+	 * @param numOfEmpires the number of empires that the ICA algorithm should select from the
+	 * given initial population of colonies. 
+	 * @param criteria the conditions that stop the run early. If <code>null</code>, the run
+	 * will execute all of its decades.
+	 */
+	ICACallable(Problem pr, String path, String fileName, boolean useExplorers, InitialPopulation population, int numOfEmpires,
+				TerminationCriteria criteria)
+	{
+		this(pr, path, fileName, useExplorers, (double[][])null, numOfEmpires, criteria);
+		this.population = population;
+	}
+
+	/**
+	 * Sets the metrics that the metrics of the run are added to. 
+	 * @param aggregateMetrics the aggregate metrics or <code>null</code>.
+	 */
+	void setAggregateMetrics(PhaseMetrics aggregateMetrics)
+	{
+		this.aggregateMetrics = aggregateMetrics;
+	}
+
+	/**
+	 * Sets the seed of the random number generator of the run. By default, each object gets
+	 * a new seed.
+	 * @param seed the seed.
+	 */
+	void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the flag that cancels the run. 
+	 * @param cancellation the cancellation flag or <code>null</code>.
+	 */
+	void setCancellation(AtomicBoolean cancellation)
+	{
+		this.cancellation = cancellation;
+	}
+
+	/**
+	 * Computes ICA optimization and returns the minimum value found together with the number 
+	 * of evaluations that were spent to find it. 
 	 */
 	@Override
-	public Double call() throws Exception
+	public ICAResult call() throws Exception
 	{
 		ICAlgorithm ica;
-		if(initialPopulation == null)
-			ica = new ICAlgorithm(pr, path, logFileName);
+		if(population != null)
+			ica = new ICAlgorithm(pr, path, logFileName, population, numOfEmpires, seed);
+		else if(initialPopulation == null)
+			ica = new ICAlgorithm(pr, path, logFileName, seed);
 		else
-			ica = new ICAlgorithm(pr, path, logFileName, initialPopulation, numOfEmpires);
+			ica = new ICAlgorithm(pr, path, logFileName, initialPopulation, numOfEmpires, seed);
+		ica.setTerminationCriteria(criteria);
+		ica.setAggregateMetrics(aggregateMetrics);
+		ica.setCancellation(cancellation);
 		if(useExplorers)
-			return pr.valueAt(ica.runEICA());
+			ica.runEICA();
 		else
-			return pr.valueAt(ica.runICA());
+			ica.runICA();
+		
+		return ica.getResult();
 	}
 }
\ No newline at end of file
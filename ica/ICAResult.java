@@ -0,0 +1,115 @@
+package ica;
+
+import ica.TerminationCriteria.StopReason;
+
+/**
+ * The outcome of one run of {@link ICAlgorithm}: the best solution that was found and the
+ * effort that was spent to find it.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class ICAResult
+{
+	private final double[] bestPosition;
+	private final double bestCost;
+	private final long evaluations;
+	private final int decades;
+	private final long elapsedMillis;
+	private final StopReason stopReason;
+	private final long seed;
+
+	/**
+	 * Creates a result. 
+	 * @param bestPosition the best position that was found. It is copied.
+	 * @param bestCost the cost of the best position.
+	 * @param evaluations the number of function evaluations of the run.
+	 * @param decades the number of decades that were run.
+	 * @param elapsedMillis the wall-clock time of the run in milliseconds.
+	 * @param stopReason the reason for which the run stopped.
+	 * @param seed the seed of the random number generator of the run.
+	 */
+	public ICAResult(double[] bestPosition, double bestCost, long evaluations, int decades, long elapsedMillis, StopReason stopReason,
+					 long seed)
+	{
+		this.bestPosition = bestPosition.clone();
+		this.bestCost = bestCost;
+		this.evaluations = evaluations;
+		this.decades = decades;
+		this.elapsedMillis = elapsedMillis;
+		this.stopReason = stopReason;
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the best position that was found.
+	 * @return a copy of the best position.
+	 */
+	public double[] getBestPosition()
+	{
+		return bestPosition.clone();
+	}
+
+	/**
+	 * Returns the cost of the best position that was found.
+	 * @return the best cost.
+	 */
+	public double getBestCost()
+	{
+		return bestCost;
+	}
+
+	/**
+	 * Returns the number of function evaluations of the run, including the evaluations of the
+	 * initial population.
+	 * @return the number of evaluations.
+	 */
+	public long getEvaluations()
+	{
+		return evaluations;
+	}
+
+	/**
+	 * Returns the number of decades that were run.
+	 * @return the number of decades.
+	 */
+	public int getDecades()
+	{
+		return decades;
+	}
+
+	/**
+	 * Returns the wall-clock time of the run.
+	 * @return the time in milliseconds.
+	 */
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	/**
+	 * Returns the reason for which the run stopped.
+	 * @return the stop reason.
+	 */
+	public StopReason getStopReason()
+	{
+		return stopReason;
+	}
+
+	/**
+	 * Returns the seed of the random number generator of the run. The run can be replayed by
+	 * creating an {@link ICAlgorithm} with this seed.
+	 * @return the seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Best cost: " + bestCost + ", evaluations: " + evaluations + ", decades: " + decades
+				+ ", time: " + elapsedMillis + " ms, stopped by: " + stopReason + ", seed: " + seed;
+	}
+}
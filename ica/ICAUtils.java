@@ -1,8 +1,6 @@
 package ica;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.Random;
 
 import static java.lang.Math.pow;
@@ -57,11 +55,22 @@ public class ICAUtils
 	 * @return the index of the min value
 	 */
 	public static int getMinIndex(double[] vector)
+	{
+		return getMinIndex(vector, vector.length);
+	}
+	
+	/**
+	 * Returns the index of the min value among the first <code>length</code> elements of the vector
+	 * @param vector values
+	 * @param length the number of elements of the vector that are considered
+	 * @return the index of the min value
+	 */
+	public static int getMinIndex(double[] vector, int length)
 	{
 		double min = Double.MAX_VALUE;
 		int i;
 		int bestIndex = 0;
-		for(i=0; i<vector.length; i++) 
+		for(i=0; i<length; i++) 
 		{
 			if(vector[i] < min)
 			{
@@ -78,12 +87,23 @@ public class ICAUtils
 	 * @return the mean value
 	 */
 	public static double getMean(double[] vector) 
+	{
+		return getMean(vector, vector.length);
+	}
+	
+	/**
+	 * Returns the mean value of the first <code>length</code> elements of a vector
+	 * @param vector the vector
+	 * @param length the number of elements of the vector that are considered
+	 * @return the mean value
+	 */
+	public static double getMean(double[] vector, int length) 
 	{
 		double sum = 0;
-		for (int i = 0; i < vector.length; i++) 
+		for (int i = 0; i < length; i++) 
 			sum += vector[i];
 
-		return sum / vector.length;
+		return sum / length;
 	}
 	
 	public static double getSTD(double[] vector, double mean)
@@ -98,6 +118,150 @@ public class ICAUtils
 		int dividor = (vector.length == 1) ? 1 : vector.length;
 		return result / dividor;
 	}
+	
+	/**
+	 * Returns the quantile of the standard normal distribution, the value below which a
+	 * standard normal variable falls with a given probability. It uses the rational 
+	 * approximation of Acklam, whose relative error is below 1.2e-9.
+	 * @param p the probability. It must be between zero and one (exclusive).
+	 * @return the quantile
+	 */
+	public static double normalQuantile(double p)
+	{
+		if(!(p > 0 && p < 1))
+			throw new IllegalArgumentException("Probability must be between zero and one.");
+		
+		final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 
+				1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+		final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 
+				6.680131188771972e+01, -1.328068155288572e+01};
+		final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, 
+				-2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+		final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 
+				3.754408661907416e+00};
+		
+		if(p < 0.02425)
+		{
+			double q = sqrt(-2 * Math.log(p));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) 
+					/ ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		if(p > 1 - 0.02425)
+			return -normalQuantile(1 - p);
+		
+		double q = p - 0.5, r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q 
+				/ (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+	
+	/**
+	 * Returns the cumulative distribution function of Student's t distribution, the 
+	 * probability that a variable of the distribution is not more than a value.
+	 * @param t the value
+	 * @param df the degrees of freedom. It must be positive.
+	 * @return the probability
+	 */
+	public static double studentTCdf(double t, int df)
+	{
+		if(df <= 0)
+			throw new IllegalArgumentException("Degrees of freedom must be a positive value.");
+		if(Double.isNaN(t))
+			return Double.NaN;
+		
+		double tail = 0.5 * regularizedBeta(df / (df + t * t), df / 2.0, 0.5);
+		return t > 0 ? 1 - tail : tail;
+	}
+	
+	/**
+	 * Returns the quantile of Student's t distribution, the value below which a variable of 
+	 * the distribution falls with a given probability. It is found by bisection on 
+	 * {@link #studentTCdf(double, int)}.
+	 * @param p the probability. It must be between zero and one (exclusive).
+	 * @param df the degrees of freedom. It must be positive.
+	 * @return the quantile
+	 */
+	public static double studentTQuantile(double p, int df)
+	{
+		if(!(p > 0 && p < 1))
+			throw new IllegalArgumentException("Probability must be between zero and one.");
+		if(p < 0.5)
+			return -studentTQuantile(1 - p, df);
+		
+		double low = 0, high = 1;
+		while(studentTCdf(high, df) < p)
+		{
+			low = high;
+			high *= 2;
+		}
+		for(int i = 0; i < 200 && high - low > 1e-12 * high; i++)
+		{
+			double middle = (low + high) / 2;
+			if(studentTCdf(middle, df) < p)
+				low = middle;
+			else
+				high = middle;
+		}
+		
+		return (low + high) / 2;
+	}
+	
+	/**
+	 * Returns the regularized incomplete beta function, evaluated with the continued fraction
+	 * of Lentz's method. 
+	 */
+	private static double regularizedBeta(double x, double a, double b)
+	{
+		if(x <= 0)
+			return 0;
+		if(x >= 1)
+			return 1;
+		
+		// The continued fraction converges quickly only below the mean of the distribution
+		if(x > (a + 1) / (a + b + 2))
+			return 1 - regularizedBeta(1 - x, b, a);
+		
+		double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x)) / a;
+		final double tiny = 1e-300;
+		double f = 1, c = 1, d = 1 - (a + b) * x / (a + 1);
+		d = 1 / (Math.abs(d) < tiny ? tiny : d);
+		f = d;
+		for(int m = 1; m <= 300; m++)
+		{
+			for(int k = 0; k < 2; k++)
+			{
+				double numerator = k == 0 
+						? m * (b - m) * x / ((a + 2 * m - 1) * (a + 2 * m)) 
+						: -(a + m) * (a + b + m) * x / ((a + 2 * m) * (a + 2 * m + 1));
+				d = 1 + numerator * d;
+				d = 1 / (Math.abs(d) < tiny ? tiny : d);
+				c = 1 + numerator / c;
+				if(Math.abs(c) < tiny)
+					c = tiny;
+				f *= c * d;
+			}
+			if(Math.abs(c * d - 1) < 1e-15)
+				break;
+		}
+		
+		return front * f;
+	}
+	
+	/**
+	 * Returns the natural logarithm of the gamma function of a positive value, computed with 
+	 * the approximation of Lanczos.
+	 */
+	private static double logGamma(double x)
+	{
+		final double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091, 
+				-1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+		double y = x, tmp = x + 5.5;
+		tmp -= (x + 0.5) * Math.log(tmp);
+		double series = 1.000000000190015;
+		for(double coefficient : coefficients)
+			series += coefficient / ++y;
+		
+		return -tmp + Math.log(2.5066282746310005 * series / x);
+	}
 
 	/**
 	 * Returns the norm (root of sum of squares) of a vector
@@ -168,22 +332,54 @@ public class ICAUtils
 	 */
 	public static int[] randperm(int n, Random r) 
 	{
-		ArrayList<Integer> nVector = new ArrayList<Integer>();
-		for(int i=0; i<n; i++)
-			nVector.add(i);
+		return randperm(n, n, r, new int[n]);
+	}
 
-		int[] outputVector = new int[n];
-		int outputIndex = 0;
+	/**
+	 * Selects k of the n integers from 0 to n-1 in a random order with a partial Fisher-Yates 
+	 * shuffle. Only k random numbers are drawn and nothing is allocated.
+	 * @param n the number of values to select from
+	 * @param k the number of values to select
+	 * @param r the random generator
+	 * @param buffer an array of at least n elements. Its first k elements receive the selected
+	 * values and the rest of its first n elements are overwritten.
+	 * @return the given buffer
+	 */
+	public static int[] randperm(int n, int k, Random r, int[] buffer) 
+	{
+		if(k < 0 || k > n || buffer.length < n)
+			throw new IllegalArgumentException("Invalid number of values to select: " + k + " of " + n);
 
-		while(nVector.size() > 0)
+		for(int i=0; i<n; i++)
+			buffer[i] = i;
+
+		for(int i=0; i<k; i++)
 		{
-			int position = r.nextInt(nVector.size());
-			outputVector[outputIndex] = nVector.get(position);
-			outputIndex++;
-			nVector.remove(position);
+			int position = i + r.nextInt(n - i);
+			int value = buffer[position];
+			buffer[position] = buffer[i];
+			buffer[i] = value;
 		}
 
-		return outputVector;
+		return buffer;
+	}
+
+	/**
+	 * Copies the rows of a matrix one after another into a flat, row-major array
+	 * @param matrix the matrix whose rows all have the same length
+	 * @return an array of length matrix.length * matrix[0].length
+	 */
+	public static double[] flatten(double[][] matrix)
+	{
+		if(matrix.length == 0)
+			return new double[0];
+		
+		int columns = matrix[0].length;
+		double[] outputArray = new double[matrix.length * columns];
+		for(int i = 0; i < matrix.length; i++)
+			arraycopy(matrix[i], 0, outputArray, i * columns, columns);
+		
+		return outputArray;
 	}
 
 	/**
@@ -269,6 +465,18 @@ public class ICAUtils
 
 	}
 
+	/**
+	 * Prints the positions of the colonies of a store
+	 * @param arrayName
+	 * @param colonies
+	 */
+	public static void printArray(String arrayName, ColonyStore colonies)
+	{
+		for(int i=0; i<colonies.size(); i++)
+			System.out.println(arrayName + "[" + i + "]: " + Arrays.toString(colonies.getPosition(i)));
+
+	}
+
 	/**
 	 * Prints the characteristics of an empire
 	 * @param empire
@@ -279,8 +487,8 @@ public class ICAUtils
 		System.out.println("Number of colonies: " + empire.getNumberOfColonies());
 		System.out.println("imperialistPosition: " + Arrays.toString(empire.getImperialistPosition()));
 		System.out.println("imperialistCost: " + empire.getImperialistCost());
-		printArray("coloniesPosition", empire.getColoniesPosition());
-		System.out.println("coloniesCost: " + Arrays.toString(empire.getColoniesCost()));
+		printArray("coloniesPosition", empire.getColonies());
+		System.out.println("coloniesCost: " + Arrays.toString(Arrays.copyOf(empire.getColonies().getCosts(), empire.getNumberOfColonies())));
 		System.out.println("totalCost: " + empire.getTotalCost());
 	}
 	
@@ -292,25 +500,7 @@ public class ICAUtils
 	 */
 	public static void sortArray(final double[] arrayToSort, double[][] matchingArray) 
 	{
-		// Create an index array
-		Integer[] sortOrder = new Integer[arrayToSort.length];
-		for(int i=0; i<sortOrder.length; i++)
-		{
-			sortOrder[i] = i;
-		}
-	
-		// Sort the array using the index array, thanks to a custom comparator
-		Arrays.sort(sortOrder,new Comparator<Integer>() 
-			{   
-				public int compare(Integer a, Integer b)
-				{
-					double delta = arrayToSort[b]-arrayToSort[a];
-					if(delta < 0) return 1;
-					if(delta > 0) return -1;
-					return 0;
-				}
-			}
-		);
+		int[] sortOrder = sortIndexes(arrayToSort, arrayToSort.length);
 		
 		// Create copies of the arrays
 		double[] arrayToSortCopy = arrayToSort.clone();
@@ -323,4 +513,41 @@ public class ICAUtils
 			matchingArray[i] = matchingArrayCopy[sortOrder[i]];
 	    }
 	}
+	
+	/**
+	 * Returns the indexes of the first elements of an array in the ascending order of their
+	 * values. The sort is a stable merge sort of primitive indexes, so equal values keep their
+	 * order and no index is boxed.
+	 * @param values the values to sort by. The array is not changed.
+	 * @param n the number of elements from the start of the array that are sorted.
+	 * @return an array whose element <code>i</code> is the index of the <code>i</code>th lowest value.
+	 */
+	public static int[] sortIndexes(double[] values, int n)
+	{
+		int[] order = new int[n];
+		int[] buffer = new int[n];
+		for(int i = 0; i < n; i++)
+			order[i] = i;
+		
+		// Bottom-up merge sort; the runs are merged back and forth between the two arrays
+		for(int width = 1; width < n; width *= 2)
+		{
+			for(int from = 0; from < n; from += 2 * width)
+			{
+				int middle = Math.min(from + width, n), to = Math.min(from + 2 * width, n);
+				int i = from, j = middle, k = from;
+				while(i < middle && j < to)
+					buffer[k++] = values[order[j]] < values[order[i]] ? order[j++] : order[i++];
+				while(i < middle)
+					buffer[k++] = order[i++];
+				while(j < to)
+					buffer[k++] = order[j++];
+			}
+			int[] swap = order;
+			order = buffer;
+			buffer = swap;
+		}
+		
+		return order;
+	}
 }
@@ -1,12 +1,21 @@
 package ica;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Random;
-
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.management.ObjectName;
+
+import ica.PhaseMetrics.Phase;
+import ica.TerminationCriteria.StopReason;
+import problem.CountingProblem;
 import problem.Problem;
 import static ica.ICAUtils.*;
 
@@ -19,6 +28,12 @@ public class ICAlgorithm
 
 	private Problem problem;
 	
+	/**
+	 * Counts the function evaluations of this run. It decorates the problem that is given to
+	 * the constructor and is used in its place everywhere in the algorithm.
+	 */
+	private CountingProblem counter;
+	
 	/**
 	 *  Number of initial countries
 	 */
@@ -52,27 +67,53 @@ public class ICAlgorithm
 	
 	/* It is used to update the revolution rate.*/
 	
-	/**
-	 * Use "true" to stop the algorithm when just one empire is remaining. Use "false" to continue the algorithm
-	 */
-	boolean stopIfJustOneEmpire = false;
-	
 	/**
 	 * The percent of search space size, which enables the uniting process of two empires
 	 */
 	double unitingThreshold = 0.02;
 
 	/**
-	 * Logs steps of ICA.  
+	 * The file that the steps of ICA are logged to. It is written by a {@link RunLogger} 
+	 * during each run. 
+	 */
+	private File logFile;
+	
+	/**
+	 * The decades whose best cost is logged.
 	 */
-	private PrintWriter logger;
+	private RunLogger.Sampling logSampling = RunLogger.Sampling.EVERY_DECADE;
+	
+	/**
+	 * The number of runs of this object. The first run truncates the log file and the next 
+	 * ones append to it.
+	 */
+	private int numOfRuns;
+	
+	/**
+	 * The metrics of the current or last run and the metrics that they are added to. They are
+	 * only used if {@link PhaseMetrics#ENABLED} is set.
+	 */
+	private RunMetrics metrics;
+	private PhaseMetrics aggregateMetrics;
 
-	Random r = new Random(System.currentTimeMillis());
+	/**
+	 * The seed of the random number generator of this object. The generators of the empires 
+	 * are split from this generator.
+	 */
+	private final long seed;
+	RandomSource r;
+	
+	/**
+	 * List of Empires of this instance of the ICA algorithm. Only the first 
+	 * {@link #numOfEmpires} elements are empires that still exist; the list is not shrunk 
+	 * when empires are united or collapse so that this does not allocate.
+	 */
+	Empire[] empiresList;
 	
 	/**
-	 * List of Empires of this instance of the ICA algorithm
+	 * The number of empires that still exist.
 	 */
-	Empire[] empiresList = new Empire[numOfInitialImperialists];
+	int numOfEmpires;
 
 	/**
 	 * The best found position for each decade
@@ -88,6 +129,48 @@ public class ICAlgorithm
 	 * The search space size (between the min and max bounds), an interval: searchSpaceSize[i] = maxBounds[i] - minBounds[i]
 	 */
 	double[] searchSpaceSize;
+	
+	/**
+	 * If not <code>null</code>, the per-empire steps of each decade are run concurrently on
+	 * this executor.
+	 */
+	private ExecutorService empireExecutor;
+	
+	/**
+	 * The spatial index that finds the imperialists that are close to each other. It is 
+	 * created when empires are united for the first time.
+	 */
+	private ImperialistGrid imperialistGrid;
+	
+	/**
+	 * The registry of the total costs of the empires from which their powers are derived. It 
+	 * is rebuilt at the start of each decade and whenever the list of empires changes, and it 
+	 * is updated whenever the total cost of an empire changes outside of a concurrent step.
+	 */
+	private EmpirePowers empirePowers;
+	
+	/**
+	 * The conditions that can stop the run before all decades are run.
+	 */
+	private TerminationCriteria terminationCriteria = new TerminationCriteria();
+	
+	/**
+	 * The number of decades of the last run, its wall-clock time and the reason it stopped.
+	 */
+	private int decadesRun;
+	private long elapsedMillis;
+	private StopReason stopReason;
+	
+	/**
+	 * The best cost at the last decade that improved it by more than the stagnation epsilon.
+	 */
+	private double lastImprovedCost;
+	private int lastImprovementDecade;
+	
+	/**
+	 * The flag that cancels the run, shared by the runs of a batch. 
+	 */
+	private AtomicBoolean cancellation;
 
 	/**
 	 * Creates an instance of the ICAlgorithm to solve a give problem. Initial population of 
@@ -100,7 +183,26 @@ public class ICAlgorithm
 	 */
 	public ICAlgorithm(Problem pr, String logFilePath, String logFileName) 
 	{
-		this.problem = pr;
+		this(pr, logFilePath, logFileName, RandomSource.newSeed());
+	}
+	
+	/**
+	 * Creates an instance of the ICAlgorithm to solve a give problem with a seeded random 
+	 * number generator. Initial population of colonies will be created randomly. Objects that
+	 * are created with the same seed for the same problem run identically.
+	 * @param pr a Problem object that this instance of ICAlgorithm will be applied to. 
+	 * @param logFilePath the path to the location on which log file will be saved. If given null
+	 * or empty string, current directory will be used. 
+	 * @param logFileName the name of log file. If given null or empty string, name of the Problem 
+	 * object and its dimension will be used.  
+	 * @param seed the seed of the random number generator.
+	 */
+	public ICAlgorithm(Problem pr, String logFilePath, String logFileName, long seed) 
+	{
+		this.seed = seed;
+		this.r = new RandomSource(seed);
+		this.counter = new CountingProblem(pr);
+		this.problem = PhaseMetrics.ENABLED ? new MeteredProblem(counter) : counter;
 		int problemDimension = this.problem.getDimension();
 		this.bestDecadePosition = new double[problemDimension];
 		this.searchSpaceSize = new double[problemDimension];
@@ -110,34 +212,24 @@ public class ICAlgorithm
 			searchSpaceSize[i] = maxBounds[i] - minBounds[i];
 		}
 
-		// Create an initial population of individuals (countries)
-		double[][] initialCountries = generateNewCountries(numOfCountries);
-						
-		// Compute the cost of each country: the lesser the cost, the more powerful the country is
-		double[] initialCosts = getCountriesCosts(initialCountries);
-		minimumCost = initialCosts[0];
-
-		// Sort the costs and the corresponding countries in ascending order. The best countries will be in higher places.
-		sortArray(initialCosts, initialCountries);
+		// Create an initial population of individuals (countries) and compute the cost of each 
+		// country: the lesser the cost, the more powerful the country is
+		InitialPopulation population = InitialPopulation.generate(problem, numOfCountries, r);
+		minimumCost = population.costOf(0);
+		population.copyPosition(0, bestDecadePosition);
 						
-		createInitialEmpires(initialCountries, initialCosts);
+		createInitialEmpires(population);
 
 		if(logFilePath == null || logFilePath.trim().isEmpty())
 			logFilePath = ".";
 		File logDirectory = new File(logFilePath);
 		if(!logDirectory.exists())
 			logDirectory.mkdirs();
-		try 
-		{
-			if(logFileName == null || logFileName.trim().isEmpty())
-				logger = new PrintWriter(new FileOutputStream(logFilePath + File.separator + pr.getName() + "-" + pr.getDimension() + ".log"));
-			else
-			{
-				logger = new PrintWriter(new FileOutputStream(logFilePath + File.separator + logFileName + ".log"));
-			}
-		} catch (FileNotFoundException e) 
+		if(logFileName == null || logFileName.trim().isEmpty())
+			logFile = new File(logFilePath + File.separator + pr.getName() + "-" + pr.getDimension() + ".log");
+		else
 		{
-			e.printStackTrace();
+			logFile = new File(logFilePath + File.separator + logFileName + ".log");
 		}
 	}
 	
@@ -155,12 +247,65 @@ public class ICAlgorithm
 	 */
 	public ICAlgorithm(Problem pr, String logFilePath, String logFileName, double [][] initialPopulation, int numOfEmpires) 
 	{
-		if(initialPopulation == null || initialPopulation.length == 0)
+		this(pr, logFilePath, logFileName, initialPopulation, numOfEmpires, RandomSource.newSeed());
+	}
+	
+	/**
+	 * Creates an instance of the ICAlgorithm to solve a give problem with a seeded random 
+	 * number generator. Initial population of colonies are received as a parameter. 
+	 * @param pr a Problem object that this instance of ICAlgorithm will be applied to. 
+	 * @param logFilePath the path to the location on which log file will be saved. If given null
+	 * or empty string, current directory will be used. 
+	 * @param logFileName the name of log file. If given null or empty string, name of the Problem 
+	 * object and its dimension will be used.  
+	 * @param initialPopulation the initial population of colonies. 
+	 * @param numOfEmpires the number of initial empires that should be selected from the initial 
+	 * population of colonies.  
+	 * @param seed the seed of the random number generator.
+	 */
+	public ICAlgorithm(Problem pr, String logFilePath, String logFileName, double [][] initialPopulation, int numOfEmpires, long seed) 
+	{
+		this(pr, logFilePath, logFileName, initialPopulation, null, numOfEmpires, seed);
+	}
+	
+	/**
+	 * Creates an instance of the ICAlgorithm to solve a give problem with a seeded random 
+	 * number generator from an initial population that is already evaluated. The population 
+	 * is only read, so it can be shared by several objects; each object copies the countries 
+	 * into its own empires. Its evaluations are counted by each object that uses it, as if the 
+	 * object had evaluated it. 
+	 * @param pr a Problem object that this instance of ICAlgorithm will be applied to. 
+	 * @param logFilePath the path to the location on which log file will be saved. If given null
+	 * or empty string, current directory will be used. 
+	 * @param logFileName the name of log file. If given null or empty string, name of the Problem 
+	 * object and its dimension will be used.  
+	 * @param population the evaluated initial population of colonies. It must have been 
+	 * evaluated with <code>pr</code>. 
+	 * @param numOfEmpires the number of initial empires that should be selected from the initial 
+	 * population of colonies.  
+	 * @param seed the seed of the random number generator.
+	 */
+	ICAlgorithm(Problem pr, String logFilePath, String logFileName, InitialPopulation population, int numOfEmpires, long seed) 
+	{
+		this(pr, logFilePath, logFileName, null, population, numOfEmpires, seed);
+	}
+	
+	private ICAlgorithm(Problem pr, String logFilePath, String logFileName, double [][] initialPopulation, 
+						InitialPopulation population, int numOfEmpires, long seed) 
+	{
+		if((initialPopulation == null || initialPopulation.length == 0) && population == null)
 			throw new IllegalArgumentException("Initial population cannot be null.");
+		if(population != null && population.getProblem() != pr)
+			throw new IllegalArgumentException("The initial population was not evaluated with the problem");
 		if(numOfEmpires <= 0)
 			throw new IllegalArgumentException("Number of empires cannot be negative or zero");
+		if(numOfEmpires > (population != null ? population.size() : initialPopulation.length))
+			throw new IllegalArgumentException("Number of empires cannot be larger than the initial population");
 		
-		this.problem = pr;
+		this.seed = seed;
+		this.r = new RandomSource(seed);
+		this.counter = new CountingProblem(pr);
+		this.problem = PhaseMetrics.ENABLED ? new MeteredProblem(counter) : counter;
 		int problemDimension = this.problem.getDimension();
 		this.bestDecadePosition = new double[problemDimension];
 		this.searchSpaceSize = new double[problemDimension];
@@ -170,36 +315,28 @@ public class ICAlgorithm
 			searchSpaceSize[i] = maxBounds[i] - minBounds[i];
 		}
 
-		this.numOfCountries = initialPopulation.length;
-		this.numOfInitialImperialists = numOfEmpires;
-		// Create an initial population of individuals (countries)
-		// double[][] initialCountries = generateNewCountries(numOfCountries);
-						
 		// Compute the cost of each country: the lesser the cost, the more powerful the country is
-		double[] initialCosts = getCountriesCosts(initialPopulation);
-		minimumCost = initialCosts[0];
-
-		// Sort the costs and the corresponding countries in ascending order. The best countries will be in higher places.
-		sortArray(initialCosts, initialPopulation);
+		if(population == null)
+			population = InitialPopulation.of(problem, initialPopulation);
+		else
+			counter.add(population.size());
+		this.numOfCountries = population.size();
+		this.numOfInitialImperialists = numOfEmpires;
+		minimumCost = population.costOf(0);
+		population.copyPosition(0, bestDecadePosition);
 						
-		createInitialEmpires(initialPopulation, initialCosts);
+		createInitialEmpires(population);
 
 		if(logFilePath == null || logFilePath.trim().isEmpty())
 			logFilePath = ".";
 		File logDirectory = new File(logFilePath);
 		if(!logDirectory.exists())
 			logDirectory.mkdirs();
-		try 
-		{
-			if(logFileName == null || logFileName.trim().isEmpty())
-				logger = new PrintWriter(new FileOutputStream(logFilePath + File.separator + pr.getName() + "-" + pr.getDimension() + ".csv"));
-			else
-			{
-				logger = new PrintWriter(new FileOutputStream(logFilePath + File.separator + logFileName + ".csv"));
-			}
-		} catch (FileNotFoundException e) 
+		if(logFileName == null || logFileName.trim().isEmpty())
+			logFile = new File(logFilePath + File.separator + pr.getName() + "-" + pr.getDimension() + ".csv");
+		else
 		{
-			e.printStackTrace();
+			logFile = new File(logFilePath + File.separator + logFileName + ".csv");
 		}
 	}
 
@@ -210,129 +347,371 @@ public class ICAlgorithm
 	 */
 	protected double[] runICA()
 	{
-		for(int decade=0; decade < numOfDecades; decade++)
-		{
-			for (int i=0; i < empiresList.length; i++)
-			{
-				empiresList[i].asssimilateColonies(assimilationCoefficient, r);
-				empiresList[i].revolveColonies(r);
-				empiresList[i].updateTotalCost();				
-				//empiresList[i].dispatchExplorers6(computePower(i), decade, r);
-				possesEmpire(empiresList[i]);
-				
-				empiresList[i].updateTotalCost();
-			}
-
-			uniteSimilarEmpires();
-			
-			imperialisticCompetition(decade);
-			
-			// If the user wants it, the algorithm can stop when only one empire remains
-			if (empiresList.length == 1 && stopIfJustOneEmpire)
-			{
-				System.out.println("Finished at decade = " + decade);
-				break;
-			}
-
-			updateInternalStates(decade);
-//			logger.append(decade + ",	" + Arrays.toString(this.bestDecadePosition));
-			logger.append(this.minimumCost + "\n");
-			logger.flush();
-		}
-
-//		System.out.println("Best solution: " + Arrays.toString(bestDecadePosition));
-//		System.out.println("Best fitness: " + minimumCost + "\nNumber of empires: " + empiresList.length);
-//		System.out.println("Value: " + this.minimumCost);
-		
-		logger.flush();
-		return bestDecadePosition;
+		return run(false);
 	}
 	
 	/**
 	 * Runs the modified version of the algorithm and saves the results of each iteration of
-	 * the algorithm to the PrintWriter object that is given to the constructor.
+	 * the algorithm to the log file that is given to the constructor.
 	 * @return the best optimum solution that is found.
 	 */
 	protected double[] runEICA()
 	{
-		for(int decade=0; decade < numOfDecades; decade++)
+		return run(true);
+	}
+	
+	/**
+	 * Runs the decades of the algorithm until all decades are run or a termination criterion
+	 * holds. The best cost of the sampled decades is logged asynchronously and the log is 
+	 * flushed when the run finishes, even if it fails. 
+	 * @param useExplorers if <code>true</code>, the modified algorithm with explorers is run.
+	 * @return the best solution that is found.
+	 */
+	private double[] run(boolean useExplorers)
+	{
+		RunLogger logger = null;
+		try 
+		{
+			logger = new RunLogger(logFile, numOfRuns > 0, logSampling);
+		} catch (IOException e) 
 		{
-			for (int i=0; i < empiresList.length; i++)
+			e.printStackTrace();
+		}
+		numOfRuns++;
+		
+		ObjectName metricsName = null;
+		if(PhaseMetrics.ENABLED)
+		{
+			metrics = new RunMetrics(this, (MeteredProblem)problem, aggregateMetrics);
+			metricsName = PhaseMetrics.register(metrics, "Run", logFile.getName());
+		}
+		
+		long startTime = System.nanoTime();
+		stopReason = StopReason.MAX_DECADES;
+		decadesRun = 0;
+		lastImprovedCost = minimumCost;
+		lastImprovementDecade = -1;
+		try
+		{
+			for(int decade=0; decade < numOfDecades; decade++)
 			{
-				empiresList[i].asssimilateColonies(assimilationCoefficient, r);
-				empiresList[i].revolveColonies(r);
-				empiresList[i].updateTotalCost();				
-				empiresList[i].dispatchExplorers6(computePower(i), decade, r);
-				possesEmpire(empiresList[i]);
+				runDecade(decade, useExplorers);
+				if(logger != null)
+					logger.log(decade, this.minimumCost);
 				
-				empiresList[i].updateTotalCost();
+				decadesRun = decade + 1;
+				if(isTerminated(decade, startTime))
+					break;
 			}
-
-			uniteSimilarEmpires();
-			
-			imperialisticCompetition(decade);
-			
-			// If the user wants it, the algorithm can stop when only one empire remains
-			if (empiresList.length == 1 && stopIfJustOneEmpire)
+		} finally
+		{
+			elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+			if(PhaseMetrics.ENABLED)
 			{
-				System.out.println("Finished at decade = " + decade);
-				break;
+				metrics.runCompleted();
+				PhaseMetrics.unregister(metricsName);
+			}
+			if(logger != null)
+			{
+				logger.logLast(decadesRun - 1, this.minimumCost);
+				try
+				{
+					logger.close();
+				} catch (IOException e)
+				{
+					e.printStackTrace();
+				}
 			}
-
-			updateInternalStates(decade);
-//			logger.append(decade + ",	" + Arrays.toString(this.bestDecadePosition));
-			logger.append( this.minimumCost + "\n");
 		}
 
 //		System.out.println("Best solution: " + Arrays.toString(bestDecadePosition));
 //		System.out.println("Best fitness: " + minimumCost + "\nNumber of empires: " + empiresList.length);
 //		System.out.println("Value: " + this.minimumCost);
 		
-		logger.flush();
 		return bestDecadePosition;
 	}
 	
-	double computePower(int index)
+	/**
+	 * Runs one decade of the algorithm and updates the best solution. 
+	 * @param decade the decade. 
+	 * @param useExplorers if <code>true</code>, empires will dispatch explorers.
+	 */
+	void runDecade(int decade, boolean useExplorers)
 	{
-		double maxCost = empiresList[0].getTotalCost();
-		double sumOfPower = 0;
+		evolveEmpires(decade, useExplorers);
+
+		long t = PhaseMetrics.ENABLED ? metrics.start() : 0;
+		uniteSimilarEmpires();
+		if(PhaseMetrics.ENABLED)
+			t = metrics.end(Phase.UNITING, t);
 		
-		for(int i = 0; i < empiresList.length; i++)
+		imperialisticCompetition(decade);
+		if(PhaseMetrics.ENABLED)
 		{
-			if(maxCost < empiresList[i].getTotalCost())
-				maxCost = empiresList[i].getTotalCost();
+			metrics.end(Phase.COMPETITION, t);
+			metrics.decadeCompleted();
 		}
-		double[] colonyPowers = new double[empiresList.length];
 		
-		if(maxCost > 0)
-			for(int i = 0; i < empiresList.length; i++)
-			{
-				colonyPowers[i] = 1.3 * maxCost - empiresList[i].getTotalCost();
-				sumOfPower += colonyPowers[i];
-			}
+		updateInternalStates(decade);
+	}
+	
+	/**
+	 * Returns the metrics of the current or last run. 
+	 * @return the metrics of the run or <code>null</code> if the algorithm has not run yet or
+	 * metrics are not enabled.
+	 * @see PhaseMetrics#ENABLED
+	 */
+	public RunMetrics getMetrics()
+	{
+		return metrics;
+	}
+	
+	/**
+	 * Sets the metrics that the metrics of the runs of this object are added to. 
+	 * @param aggregateMetrics the aggregate metrics or <code>null</code>.
+	 */
+	void setAggregateMetrics(PhaseMetrics aggregateMetrics)
+	{
+		this.aggregateMetrics = aggregateMetrics;
+	}
+	
+	/**
+	 * Sets the decades whose best cost is logged. 
+	 * @param logSampling the sampling policy of the log. 
+	 */
+	public void setLogSampling(RunLogger.Sampling logSampling)
+	{
+		if(logSampling == null)
+			throw new IllegalArgumentException("Sampling cannot be null.");
+		this.logSampling = logSampling;
+	}
+	
+	/**
+	 * Checks the termination criteria at the end of a decade and records the reason if the run
+	 * should stop.
+	 * @param decade the decade that has just finished.
+	 * @param startTime the value of {@link System#nanoTime()} when the run started.
+	 * @return <code>true</code> if the run should stop.
+	 */
+	private boolean isTerminated(int decade, long startTime)
+	{
+		if(minimumCost < lastImprovedCost - terminationCriteria.getStagnationEpsilon())
+		{
+			lastImprovedCost = minimumCost;
+			lastImprovementDecade = decade;
+		}
+		
+		if(minimumCost <= terminationCriteria.getTargetCost())
+			stopReason = StopReason.TARGET_COST;
+		else if(counter.getEvaluations() >= terminationCriteria.getMaxEvaluations())
+			stopReason = StopReason.MAX_EVALUATIONS;
+		else if((System.nanoTime() - startTime) / 1000000 >= terminationCriteria.getMaxTimeMillis())
+			stopReason = StopReason.MAX_TIME;
+		else if(numOfEmpires == 1 && terminationCriteria.isStopIfJustOneEmpire())
+			stopReason = StopReason.ONE_EMPIRE;
+		else if(terminationCriteria.getStagnationDecades() > 0 
+				&& decade - lastImprovementDecade >= terminationCriteria.getStagnationDecades())
+			stopReason = StopReason.STAGNATION;
+		else if(terminationCriteria.getMinSpread() > 0 && getColonySpread() < terminationCriteria.getMinSpread())
+			stopReason = StopReason.SPREAD_COLLAPSE;
+		else if(cancellation != null && cancellation.get())
+			stopReason = StopReason.CANCELLED;
 		else
-			for(int i = 0; i < empiresList.length; i++)
+			return false;
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the root mean square distance between the colonies and their imperialists, 
+	 * relative to the length of the diagonal of the search space. It is computed from the 
+	 * spread that each empire keeps up to date for its current colonies. 
+	 * @return the relative spread of the colonies.
+	 */
+	double getColonySpread()
+	{
+		double sum = 0;
+		int count = 0;
+		for(int i = 0; i < numOfEmpires; i++)
+		{
+			sum += empiresList[i].getColonySpread();
+			count += empiresList[i].getNumberOfColonies();
+		}
+		if(count == 0)
+			return 0;
+		
+		return Math.sqrt(Math.max(sum, 0) / count) / getNorm(searchSpaceSize);
+	}
+	
+	/**
+	 * Sets the conditions that can stop a run before all of its decades are run.
+	 * @param terminationCriteria the termination criteria. If <code>null</code>, only the
+	 * number of decades limits the run.
+	 */
+	public void setTerminationCriteria(TerminationCriteria terminationCriteria)
+	{
+		this.terminationCriteria = terminationCriteria != null ? terminationCriteria : new TerminationCriteria();
+	}
+	
+	/**
+	 * Sets the flag that cancels a run of this object. The flag is checked at the end of 
+	 * each decade and the run stops with {@link StopReason#CANCELLED} once it is set. 
+	 * @param cancellation the cancellation flag or <code>null</code>.
+	 */
+	void setCancellation(AtomicBoolean cancellation)
+	{
+		this.cancellation = cancellation;
+	}
+	
+	/**
+	 * Returns the number of function evaluations since this object was created. The evaluations 
+	 * of the initial population are included.
+	 * @return the number of evaluations.
+	 */
+	public long getNumberOfEvaluations()
+	{
+		return counter.getEvaluations();
+	}
+	
+	/**
+	 * Returns the result of the last run of {@link #runICA()} or {@link #runEICA()}.
+	 * @return the result of the last run or <code>null</code> if the algorithm has not run yet.
+	 */
+	public ICAResult getResult()
+	{
+		if(stopReason == null)
+			return null;
+		
+		return new ICAResult(bestDecadePosition, minimumCost, counter.getEvaluations(), decadesRun, elapsedMillis, stopReason, seed);
+	}
+	
+	/**
+	 * Returns the seed of the random number generator of this object. A new object that is 
+	 * created with this seed for the same problem and runs the same way, repeats the runs of 
+	 * this object exactly.
+	 * @return the seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+	
+	/**
+	 * Sets the executor that the per-empire steps of each decade will be run on. These steps 
+	 * (assimilation, revolution, explorers and possession) of different empires are independent
+	 * of each other and are run concurrently. The algorithm waits for all of them to finish 
+	 * before uniting empires and running the imperialistic competition. Each empire always draws 
+	 * from its own random number generator and in this mode, the powers of empires that explorers 
+	 * use are computed once before the steps start, so the result of a run does not depend on the 
+	 * number of threads of the executor. 
+	 * @param empireExecutor the executor that will run the per-empire steps. If <code>null</code>,
+	 * the empires will be processed one after another on the calling thread. 
+	 */
+	public void setEmpireExecutor(ExecutorService empireExecutor)
+	{
+		this.empireExecutor = empireExecutor;
+	}
+	
+	/**
+	 * Runs the per-empire steps of a decade on all empires. 
+	 * @param decade the current decade. 
+	 * @param useExplorers if <code>true</code>, empires will dispatch explorers.
+	 */
+	private void evolveEmpires(final int decade, final boolean useExplorers)
+	{
+		empirePowers.build(empiresList, numOfEmpires);
+		if(empireExecutor == null)
+		{
+			for (int i=0; i < numOfEmpires; i++)
 			{
-				colonyPowers[i] = 0.7 * maxCost - empiresList[i].getTotalCost();
-				sumOfPower += colonyPowers[i];
+				evolveEmpire(i, empiresList[i].getRandom(), decade, useExplorers);
+				empirePowers.update(i, empiresList[i].getTotalCost());
 			}
+			return;
+		}
+		
+		// The registry is not updated while the tasks run, so all empires see the powers of 
+		// the start of the decade
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numOfEmpires);
+		for (int i=0; i < numOfEmpires; i++)
+		{
+			final int index = i;
+			tasks.add(() -> {
+				evolveEmpire(index, empiresList[index].getRandom(), decade, useExplorers);
+				return null;
+			});
+		}
+		
+		try
+		{
+			for(Future<Void> future : empireExecutor.invokeAll(tasks))
+				future.get();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while evolving empires.", e);
+		} catch (ExecutionException e)
+		{
+			throw new RuntimeException("Evolving an empire has failed.", e.getCause());
+		}
+		empirePowers.build(empiresList, numOfEmpires);
+	}
+	
+	/**
+	 * Runs the per-empire steps of a decade on one empire. 
+	 * @param index index of the empire.
+	 * @param random the random number generator that assimilation and revolution will use. 
+	 * Explorers use the explorer generator of the empire.
+	 * @param decade the current decade.
+	 * @param useExplorers if <code>true</code>, the empire will dispatch explorers.
+	 */
+	private void evolveEmpire(int index, RandomSource random, int decade, boolean useExplorers)
+	{
+		Empire theEmpire = empiresList[index];
+		long t = PhaseMetrics.ENABLED ? metrics.start() : 0;
+		theEmpire.asssimilateColonies(assimilationCoefficient, random);
+		if(PhaseMetrics.ENABLED)
+			t = metrics.end(Phase.ASSIMILATION, t);
+		theEmpire.revolveColonies(random);
+		theEmpire.updateTotalCost();
+		if(PhaseMetrics.ENABLED)
+			t = metrics.end(Phase.REVOLUTION, t);
+		if(useExplorers)
+		{
+			theEmpire.dispatchExplorers6(computePower(index), decade, theEmpire.getExplorerRandom());
+			if(PhaseMetrics.ENABLED)
+				t = metrics.end(Phase.EXPLORERS, t);
+		}
+		possesEmpire(theEmpire);
 		
-		return (colonyPowers[index] / sumOfPower);
+		theEmpire.updateTotalCost();
+		if(PhaseMetrics.ENABLED)
+			metrics.end(Phase.POSSESSION, t);
+	}
+	
+	/**
+	 * Returns the normalized power of an empire from the registry of empire powers. 
+	 * @param index the index of the empire.
+	 * @return the power of the empire.
+	 */
+	double computePower(int index)
+	{
+		return empirePowers.getNormalizedPower(index);
 	}
 
 	private void updateInternalStates(int decade)
 	{
-		double[] imperialistCosts = new double[empiresList.length];
-		for(int i=0; i<empiresList.length ; i++)
+		int minIndex = 0;
+		for(int i=1; i<numOfEmpires; i++)
 		{
-			imperialistCosts[i] = empiresList[i].getImperialistCost();
+			if(empiresList[i].getImperialistCost() < empiresList[minIndex].getImperialistCost())
+				minIndex = i;
 		}
 		
-		int minIndex = ICAUtils.getMinIndex(imperialistCosts);
-		if(minimumCost > imperialistCosts[minIndex])
+		if(minimumCost > empiresList[minIndex].getImperialistCost())
 		{
-			minimumCost = imperialistCosts[minIndex];
-			bestDecadePosition = empiresList[minIndex].getImperialistPosition();
+			minimumCost = empiresList[minIndex].getImperialistCost();
+			System.arraycopy(empiresList[minIndex].getImperialistPosition(), 0, bestDecadePosition, 0, bestDecadePosition.length);
 		}
 	}
 
@@ -347,12 +726,14 @@ public class ICAlgorithm
 	private double[][] generateNewCountries(int numberOfCountries) 
 	{
 		int problemDimension = this.problem.getDimension();
+		double[] maxBounds = problem.getUpperBounds(), minBounds = problem.getLowerBounds();
 		double[][] countriesArray = new double[numberOfCountries][problemDimension];  
 		for(int i=0; i<numberOfCountries; i++)
 		{
+			r.nextDoubles(countriesArray[i], problemDimension);
 			for(int j=0; j<problemDimension; j++)
 			{
-				countriesArray[i][j] = (this.problem.getUpperBounds()[j] - this.problem.getLowerBounds()[j]) * r.nextDouble() + this.problem.getLowerBounds()[j];
+				countriesArray[i][j] = (maxBounds[j] - minBounds[j]) * countriesArray[i][j] + minBounds[j];
 			}
 		}
 		return countriesArray;
@@ -360,51 +741,17 @@ public class ICAlgorithm
 
 
 	/**
-	 * Returns a vector with the cost of all countries computed according to their position
-	 * @param numberOfCountries the number of countries
-	 * @param countriesArray
-	 * @return a vector with the costs of all countries
+	 * Generates the initial empires. The best countries of the population become the 
+	 * imperialists and the rest are divided randomly between them.
 	 */
-	private double[] getCountriesCosts(double[][] countriesArray) 
-	{
-		double[] costsVector = new double[countriesArray.length];
-		for(int i = 0; i < countriesArray.length; i++)
-		{
-			costsVector[i] = getCountryCost(countriesArray[i]);
-		}
-		return costsVector;
-	}
-
-	/**
-	 * Returns the cost of one country
-	 * @param country the country
-	 * @return the cost
-	 */
-	private double getCountryCost(double[] country) 
-	{
-		return problem.valueAt(country);
-	}
-
-	/**
-	 * Generates the initial empires
-	 */
-	private void createInitialEmpires(double[][] initialCountries, double[] initialCosts)
+	private void createInitialEmpires(InitialPopulation population)
 	{
 		int numOfAllColonies = numOfCountries - numOfInitialImperialists;
 
-		// Extract the best countries to create empires
-		double[][] allImperialistsPosition = extractArrayRange(initialCountries, 0, numOfInitialImperialists);
-
-		// Extract their costs
+		// Extract the costs of the best countries to create empires
 		double[] allImperialistsCost = new double[numOfInitialImperialists];
-		System.arraycopy(initialCosts, 0, allImperialistsCost, 0, numOfInitialImperialists);
-
-		// Extract the rest to create colonies
-		double[][] allColoniesPosition = extractArrayRange(initialCountries, numOfInitialImperialists, initialCountries.length);
-
-		// Extract their costs
-		double[] allColoniesCost = new double[initialCosts.length-numOfInitialImperialists]; 
-		System.arraycopy(initialCosts, numOfInitialImperialists, allColoniesCost, 0, initialCosts.length-numOfInitialImperialists);	
+		for(int i=0; i<numOfInitialImperialists; i++)
+			allImperialistsCost[i] = population.costOf(i);
 
 		// Compute the power of imperialists
 		double[] allImperialistsPower = new double[numOfInitialImperialists];
@@ -438,42 +785,49 @@ public class ICAlgorithm
 					getSum(Arrays.copyOfRange(allImperialistNumOfColonies, 0, allImperialistNumOfColonies.length-1)), 0);
 
 		// Initialize the empires
+		empiresList = new Empire[numOfInitialImperialists];
 		for(int i=0; i<numOfInitialImperialists; i++)
 		{
 			empiresList[i] = new Empire(zeta, problem);
+			empiresList[i].setRandom(r.split());
 		}
 		
-		// Create a random permutation of integers
+		// Create a random permutation of the colonies and map it to their indexes in the population
 		int[] randomIndex = randperm(numOfAllColonies, r);
+		for(int k=0; k<numOfAllColonies; k++)
+			randomIndex[k] = population.indexOf(numOfInitialImperialists + randomIndex[k]);
 		
 		// Create the empires and attribute them their colonies
+		double[] imperialistPosition = new double[problem.getDimension()];
+		int start = 0;
 		for(int i = 0; i < numOfInitialImperialists; i++)
 		{
-			int[] R = Arrays.copyOfRange(randomIndex, 0, allImperialistNumOfColonies[i]);
-			//empiresList[i].init(R.length);
-			//System.out.println(this.numOfCountries);
-			//System.out.println(allImperialistNumOfColonies[i] + " " + randomIndex.length);
-			randomIndex = Arrays.copyOfRange(randomIndex, allImperialistNumOfColonies[i], randomIndex.length);
+			int end = Math.min(start + allImperialistNumOfColonies[i], numOfAllColonies);
 			
-			empiresList[i].setImperialistPosition(allImperialistsPosition[i]);
-			empiresList[i].setColoniesPosition(extractGivenArrayParts(allColoniesPosition, R));
-			//empiresList[i].setColoniesCost(utils.extractGivenArrayParts(allColoniesCost, R));
-			//empiresList[i].setTotalCost(empiresList[i].getImperialistCost() + zeta * utils.getMean(empiresList[i].getColoniesCost()));
+			population.copyPosition(i, imperialistPosition);
+			empiresList[i].setImperialistPosition(imperialistPosition, allImperialistsCost[i]);
+			empiresList[i].setColoniesPosition(population.getPositions(), population.getCosts(), randomIndex, start, end);
 			empiresList[i].updateTotalCost();
+			start = end;
 		}
 
+		numOfEmpires = numOfInitialImperialists;
+		
 		// If an empire has no colony, give it one
-		for(int i=0; i<empiresList.length; i++)
+		for(int i=0; i<numOfEmpires; i++)
 		{
-			if(empiresList[i].getColoniesPosition().length == 0)
+			if(empiresList[i].getNumberOfColonies() == 0)
 			{
 				empiresList[i].setColoniesPosition(generateNewCountries(1));
 				empiresList[i].updateTotalCost();
 			}
 		}
+		
+		empirePowers = new EmpirePowers(numOfEmpires);
+		empirePowers.build(empiresList, numOfEmpires);
 
 	}
-
+
 	/**
 	 * Can make a colony become the imperialist 
 	 * if it is more powerful than the imperialist.
@@ -481,119 +835,68 @@ public class ICAlgorithm
 	 */
 	private void possesEmpire(Empire theEmpire)
 	{
-		// Get the costs of the colonies
-		double[] coloniesCost = theEmpire.getColoniesCost();
+		// Get the colonies and their costs
+		ColonyStore colonies = theEmpire.getColonies();
 
 		// Get the cost of the best colony (the lowest cost)
-		int bestColonyInd = ICAUtils.getMinIndex(coloniesCost);
-		double minColoniesCost = coloniesCost[bestColonyInd]; 
+		int bestColonyInd = colonies.getBestIndex();
+		if(bestColonyInd < 0)
+			return;
+		double minColoniesCost = colonies.getCost(bestColonyInd); 
 
 		// If this cost is lower than the one of the imperialist
 		if(minColoniesCost < theEmpire.getImperialistCost())
 		{
-			// Backup the position and cost of the former imperialist
-			double[] oldImperialistPosition = theEmpire.getImperialistPosition();
-
-			// Update the position and cost of the imperialist with the ones of the colony
-			theEmpire.setImperialistPosition(theEmpire.getColoniesPosition()[bestColonyInd]);
-
-			// Update the position and cost of the former colony with the ones of the former imperialist
-			theEmpire.setColonyPosition(bestColonyInd, oldImperialistPosition);
+			// Exchange the positions and costs of the imperialist and the colony
+			theEmpire.swapImperialistWithColony(bestColonyInd);
 			theEmpire.updateTotalCost();
 		}
 	}
 
 	/**
-	 * Unites imperialists that are close to each other
+	 * Unites imperialists that are close to each other. All groups of close imperialists are
+	 * found in one pass and each group is united into the empire of its best imperialist: the
+	 * other imperialists of the group and their colonies become its colonies.
 	 */
 	private void uniteSimilarEmpires()
 	{
-		// Get the threshold distance between two empires
-		double thresholdDistance = unitingThreshold * getNorm(searchSpaceSize);
+		if(numOfEmpires < 2)
+			return;
 		
-		// Get the number of empires
-		int numOfEmpires = empiresList.length;
-
-		// Compare each empire with the other ones
-		for(int i=0; i < (numOfEmpires-1); i++)
-		{
-			for(int j=i+1; j<numOfEmpires; j++)
-			{
-				// Compute the distance between the two empires i and j
-				double[] distanceVector = new double[empiresList[i].getImperialistPosition().length];
-				for(int k=0; k<empiresList[i].getImperialistPosition().length; k++)
-				{
-					distanceVector[k] = empiresList[i].getImperialistPosition()[k] - empiresList[j].getImperialistPosition()[k];
-				}
-				double distance = getNorm(distanceVector);
-
-				// If the empires are too close
-				if(distance<=thresholdDistance)
-				{
-					// Get the best and worst empires of the two
-					int betterEmpireInd;
-					int worseEmpireInd;
-					if(empiresList[i].getImperialistCost() < empiresList[j].getImperialistCost())
-					{
-						betterEmpireInd=i;
-						worseEmpireInd=j;
-					}
-					else
-					{
-						betterEmpireInd=j;
-						worseEmpireInd=i;
-					}
-
-					// Update the positions
-					double[][] newColoniesPosition = getColonyPositionsOfUnitedEmpire(betterEmpireInd, worseEmpireInd);
-					empiresList[betterEmpireInd].setColoniesPosition(newColoniesPosition);
-					empiresList[i].updateTotalCost();
-
-					deleteAnEmpire(worseEmpireInd);
-
-					return;
-				}
-			}
-		}  
-	}
-
-	/**
-	 * Returns the positions of the colonies of the united empire (after two empires merge) 
-	 * @param betterEmpireInd the best empire
-	 * @param worseEmpireInd the worst empire
-	 * @return the corresponding colony positions
-	 */
-	private double[][] getColonyPositionsOfUnitedEmpire(int betterEmpireInd, int worseEmpireInd) 
-	{
-		int problemDimension = this.problem.getDimension();
-		// Get the new number of colonies of the united empire
-		int newSize = 
-			empiresList[betterEmpireInd].getColoniesPosition().length + 
-			1 + 
-			empiresList[worseEmpireInd].getColoniesPosition().length;
+		// The threshold distance between two empires does not change, so the grid is built once
+		if(imperialistGrid == null)
+			imperialistGrid = new ImperialistGrid(problem.getLowerBounds(), problem.getUpperBounds(), 
+					unitingThreshold * getNorm(searchSpaceSize), numOfEmpires);
+		int[] group = imperialistGrid.findGroups(empiresList, numOfEmpires);
 		
-		// Create a new array to store the positions of the colonies
-		double[][] newColoniesPosition = new double[newSize][problemDimension];
-
-		// At first, store the positions of the colonies of the best empire in the array
-		int i;
-		for(i=0; i<empiresList[betterEmpireInd].getColoniesPosition().length; i++)
+		// The former worse imperialists and their colonies become colonies of the best empire
+		int numOfUnited = 0;
+		for(int i=0; i<numOfEmpires; i++)
 		{
-			newColoniesPosition[i] = empiresList[betterEmpireInd].getColoniesPosition()[i];
+			if(group[i] == i)
+				continue;
+			
+			Empire betterEmpire = empiresList[group[i]], worseEmpire = empiresList[i];
+			betterEmpire.addColony(worseEmpire.getImperialistPosition(), worseEmpire.getImperialistCost());
+			betterEmpire.addColonies(worseEmpire.getColonies());
+			numOfUnited++;
 		}
+		if(numOfUnited == 0)
+			return;
 		
-		// Then add the position of the former worst imperialist
-		newColoniesPosition[i] = empiresList[worseEmpireInd].getImperialistPosition();
-		
-		// Finally, add the costs of the colonies of the worst empire
-	
-		for(int i2=i+1; i2<newSize; i2++)
+		// Keep the remaining empires in their order
+		int n = 0;
+		for(int i=0; i<numOfEmpires; i++)
 		{
-			newColoniesPosition[i2] = empiresList[worseEmpireInd].getColoniesPosition()[i2-empiresList[betterEmpireInd].getColoniesPosition().length-1];
+			if(group[i] != i)
+				continue;
+			
+			empiresList[i].updateTotalCost();
+			empiresList[n++] = empiresList[i];
 		}
-
-		// Return the array with the updated positions
-		return newColoniesPosition;
+		Arrays.fill(empiresList, n, numOfEmpires, null);
+		numOfEmpires = n;
+		empirePowers.build(empiresList, numOfEmpires);
 	}
 
 	/**
@@ -610,38 +913,16 @@ public class ICAlgorithm
 		}
 		
 		// Idem if their is only one empire
-		if(empiresList.length<=1)
+		if(numOfEmpires<=1)
 		{
 			return;
 		}
 
-		// Get the total cost of each empire
-		double[] totalCosts = new double[empiresList.length]; 
-		for(int i=0; i<empiresList.length; i++)
-		{
-			totalCosts[i] = empiresList[i].getTotalCost();
-		}
-		
-		// Get the weakest empire (the one with the highest cost) and its cost
-		int weakestEmpireInd = ICAUtils.getMaxIndex(totalCosts);
-		double maxTotalCost = totalCosts[weakestEmpireInd]; 
-		
-		// Get the power of each empire
-		double[] totalPowers = new double[empiresList.length];
-		for(int i=0; i<empiresList.length; i++)
-		{
-			totalPowers[i] = maxTotalCost - totalCosts[i];
-		}
-
-		// Get the possession probability of each empire
-		double[] possessionProbability = new double[empiresList.length];
-		for(int i=0; i<empiresList.length; i++)
-		{
-			possessionProbability[i] = totalPowers[i] / getSum(totalPowers);
-		}
+		// Get the weakest empire (the one with the highest cost)
+		int weakestEmpireInd = empirePowers.getWeakest();
 		
-		// Select an empire according to their probabilities
-		int selectedEmpireInd = selectAnEmpire(possessionProbability);
+		// Select an empire according to their powers
+		int selectedEmpireInd = selectAnEmpire();
 		
 		// Generate a random integer
 		int numOfColoniesOfWeakestEmpire = empiresList[weakestEmpireInd].getNumberOfColonies();
@@ -649,12 +930,7 @@ public class ICAlgorithm
 
 		// Update the positions of the colonies of the selected empire 
 		// by adding the position of the randomly selected colony of the weakest empire
-		empiresList[selectedEmpireInd].setColoniesPosition(	
-				concatenatePositions(
-						empiresList[selectedEmpireInd].getColoniesPosition(), 
-						empiresList[weakestEmpireInd].getColoniesPosition()[indexOfSelectedColony]
-				)
-		);
+		empiresList[selectedEmpireInd].addColony(empiresList[weakestEmpireInd].getColonies(), indexOfSelectedColony);
 		empiresList[selectedEmpireInd].updateTotalCost();
 
 		// Update the positions of the colonies of the weakest empire 
@@ -669,45 +945,20 @@ public class ICAlgorithm
 		if(numOfColoniesOfWeakestEmpire<=1)
 		{
 			// Update the positions of the colonies by adding the collapsed imperialist
-			empiresList[selectedEmpireInd].setColoniesPosition( 
-					concatenatePositions(
-							empiresList[selectedEmpireInd].getColoniesPosition(), 
-							empiresList[weakestEmpireInd].getImperialistPosition()
-					) 
-			);
+			empiresList[selectedEmpireInd].addColony(empiresList[weakestEmpireInd].getImperialistPosition(), empiresList[weakestEmpireInd].getImperialistCost());
 			
 			// Erase the collapsed empire from the empires list
 			deleteAnEmpire(weakestEmpireInd);
 			//System.out.println("An empire deleted at decade = " + decade);
+			empirePowers.build(empiresList, numOfEmpires);
 		}
 		else
-			empiresList[weakestEmpireInd].updateTotalCost();
-
-	}
-
-	/**
-	 * Concatenates the positions of an empire with an additional one
-	 * @param positions1 the positions array of the empire
-	 * @param position2 the position to add
-	 * @return the updated positions
-	 */
-	private double[][] concatenatePositions(double[][] positions1, double[] position2)
-	{
-		// Create a new array to store the updated positions 
-		double[][] newPositions = new double[positions1.length+1][positions1[0].length];
-
-		// Add the positions of the existing empire in the array
-		int i;
-		for(i=0; i<positions1.length; i++)
 		{
-			newPositions[i] = positions1[i];
+			empiresList[weakestEmpireInd].updateTotalCost();
+			empirePowers.update(weakestEmpireInd, empiresList[weakestEmpireInd].getTotalCost());
+			empirePowers.update(selectedEmpireInd, empiresList[selectedEmpireInd].getTotalCost());
 		}
 
-		// Then add the position to add at the end
-		newPositions[i] = position2;
-
-		// Return the updated positions
-		return newPositions;
 	}
 
 	
@@ -717,53 +968,19 @@ public class ICAlgorithm
 	 */
 	private void deleteAnEmpire(int indexToDelete)
 	{
-		// Split the empires list into two sub lists, before and after the empire to remove
-		Empire[] empiresList1 = Arrays.copyOfRange(empiresList, 0, indexToDelete);
-		Empire[] empiresList2 = Arrays.copyOfRange(empiresList, indexToDelete+1, empiresList.length);
-
-		// Create a new list with the updated size
-		empiresList = new Empire[empiresList1.length+empiresList2.length];
-		
-		// Copy the empires of the sub lists into the new one
-		for(int n=0; n<(empiresList1.length + empiresList2.length); n++)
-		{
-			if(n<empiresList1.length)
-			{
-				empiresList[n] = empiresList1[n];
-			}
-
-			if(n>= empiresList1.length)
-			{
-				empiresList[n] = empiresList2[n-empiresList1.length];
-			}
-		}
+		// Shift the empires after the empire to remove one place towards the start of the list
+		System.arraycopy(empiresList, indexToDelete+1, empiresList, indexToDelete, numOfEmpires-indexToDelete-1);
+		empiresList[--numOfEmpires] = null;
 	}
 
 
 	/**
-	 * Selects an empire according to their probabilities 
-	 * @param probability the probability vector
+	 * Selects an empire with a probability that is proportional to its power 
 	 * @return the selected empire index
 	 */
-	private int selectAnEmpire(double[] probability)
+	private int selectAnEmpire()
 	{
-		// Create a vector of random numbers
-		double[] randVector = new double[probability.length];
-		for(int i=0; i<probability.length; i++)
-		{
-			randVector[i] = r.nextDouble();
-		}
-		
-		// Subtract to each element of this vector the corresponding 
-		// value of the probability vector
-		double[] dVector = new double[probability.length];
-		for(int i=0; i<probability.length; i++)
-		{
-			dVector[i] = probability[i] - randVector[i];
-		}
-		
-		// Return the index of the maximum value of the vector
-		return getMaxIndex(dVector);
+		return empirePowers.sample(r.nextDouble());
 	}
 
 	/**
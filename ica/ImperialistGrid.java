@@ -0,0 +1,190 @@
+package ica;
+
+import java.util.Arrays;
+
+/**
+ * Finds the groups of empires whose imperialists are closer to each other than a threshold
+ * distance. The imperialists are put in a uniform grid over their first (up to)
+ * {@value #GRID_DIMENSIONS} coordinates whose cell size is at least the threshold, so two
+ * imperialists that are close to each other are in the same or in adjacent cells and only
+ * those pairs are compared. Close pairs are joined with a union-find structure, so all
+ * groups of a decade are found in one pass, including chains of imperialists in which only
+ * neighbours are close.
+ *
+ * <p>The grid is kept in a sorted array of cell keys and all buffers are allocated once for
+ * the initial number of empires, so finding the groups does not allocate.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+class ImperialistGrid
+{
+	/**
+	 * The number of coordinates that the grid is built on. Each imperialist is compared with
+	 * the imperialists of 3^GRID_DIMENSIONS cells.
+	 */
+	static final int GRID_DIMENSIONS = 3;
+
+	private static final int CELL_BITS = 14;
+	private static final long MAX_CELL = (1L << CELL_BITS) - 1;
+	private static final int INDEX_BITS = 20;
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+	private final double thresholdSquared;
+	private final double[] lowerBounds;
+	private final int gridDimensions;
+	private final double[] cellSizes;
+
+	private final long[] cellKeys;
+	private final long[] sortedEntries;
+	private final int[] parent;
+
+	/**
+	 * Creates a grid.
+	 * @param lowerBounds the lower bounds of the search space.
+	 * @param upperBounds the upper bounds of the search space.
+	 * @param threshold the distance below which two imperialists are close.
+	 * @param maxEmpires the largest number of empires that the grid is used for.
+	 */
+	ImperialistGrid(double[] lowerBounds, double[] upperBounds, double threshold, int maxEmpires)
+	{
+		if(maxEmpires > INDEX_MASK)
+			throw new IllegalArgumentException("Too many empires: " + maxEmpires);
+
+		this.thresholdSquared = threshold * threshold;
+		this.lowerBounds = lowerBounds;
+		this.gridDimensions = Math.min(GRID_DIMENSIONS, lowerBounds.length);
+		this.cellSizes = new double[gridDimensions];
+		for(int d = 0; d < gridDimensions; d++)
+		{
+			// Cells may be larger than the threshold so that cell numbers fit in their bits
+			double range = upperBounds[d] - lowerBounds[d];
+			cellSizes[d] = Math.max(threshold, range / MAX_CELL);
+			if(!(cellSizes[d] > 0))
+				cellSizes[d] = 1;
+		}
+
+		this.cellKeys = new long[maxEmpires];
+		this.sortedEntries = new long[maxEmpires];
+		this.parent = new int[maxEmpires];
+	}
+
+	/**
+	 * Finds the groups of close empires. The representative of each group is the empire with
+	 * the imperialist of the lowest cost; ties are broken in favour of the empire with the
+	 * lower index.
+	 * @param empires the empires.
+	 * @param numOfEmpires the number of empires at the start of the array that are grouped.
+	 * @return an array whose element <code>i</code> is the index of the representative of the
+	 * group of empire <code>i</code>. It is owned by this grid and is overwritten by the next
+	 * call.
+	 */
+	int[] findGroups(Empire[] empires, int numOfEmpires)
+	{
+		for(int i = 0; i < numOfEmpires; i++)
+		{
+			parent[i] = i;
+			cellKeys[i] = cellKey(empires[i].getImperialistPosition());
+			sortedEntries[i] = (cellKeys[i] << INDEX_BITS) | i;
+		}
+		Arrays.sort(sortedEntries, 0, numOfEmpires);
+
+		for(int i = 0; i < numOfEmpires; i++)
+			unionNeighbours(empires, numOfEmpires, i, 0, cellKeys[i]);
+
+		// Flatten the trees so that each element points to its representative
+		for(int i = 0; i < numOfEmpires; i++)
+			parent[i] = find(i);
+
+		return parent;
+	}
+
+	/**
+	 * Joins an empire with the close empires of higher index in the cells that are adjacent to
+	 * its cell. The adjacent cells are enumerated recursively, one grid coordinate at a time.
+	 */
+	private void unionNeighbours(Empire[] empires, int numOfEmpires, int i, int d, long key)
+	{
+		if(d == gridDimensions)
+		{
+			unionCell(empires, numOfEmpires, i, key);
+			return;
+		}
+
+		int shift = (gridDimensions - 1 - d) * CELL_BITS;
+		long c = (key >>> shift) & MAX_CELL;
+		for(long n = Math.max(c - 1, 0); n <= Math.min(c + 1, MAX_CELL); n++)
+			unionNeighbours(empires, numOfEmpires, i, d + 1, (key & ~(MAX_CELL << shift)) | (n << shift));
+	}
+
+	private void unionCell(Empire[] empires, int numOfEmpires, int i, long key)
+	{
+		int k = Arrays.binarySearch(sortedEntries, 0, numOfEmpires, key << INDEX_BITS);
+		if(k < 0)
+			k = -k - 1;
+
+		double[] position = empires[i].getImperialistPosition();
+		for(; k < numOfEmpires && (sortedEntries[k] >>> INDEX_BITS) == key; k++)
+		{
+			// Pairs that are already in the same group need not be compared
+			int j = (int)(sortedEntries[k] & INDEX_MASK);
+			if(j > i && find(i) != find(j) && isClose(position, empires[j].getImperialistPosition()))
+				union(empires, i, j);
+		}
+	}
+
+	private boolean isClose(double[] a, double[] b)
+	{
+		// Stop as soon as the partial distance exceeds the threshold
+		double sum = 0;
+		for(int k = 0; k < a.length; k++)
+		{
+			double d = a[k] - b[k];
+			sum += d * d;
+			if(sum > thresholdSquared)
+				return false;
+		}
+
+		return true;
+	}
+
+	private long cellKey(double[] position)
+	{
+		long key = 0;
+		for(int d = 0; d < gridDimensions; d++)
+		{
+			long c = (long)((position[d] - lowerBounds[d]) / cellSizes[d]);
+			key = (key << CELL_BITS) | Math.max(0, Math.min(MAX_CELL, c));
+		}
+
+		return key;
+	}
+
+	private int find(int i)
+	{
+		while(parent[i] != i)
+		{
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+
+		return i;
+	}
+
+	/**
+	 * Joins the groups of two empires. The root of the joined group is the better of the two
+	 * roots, so the root of each group is always its best empire.
+	 */
+	private void union(Empire[] empires, int i, int j)
+	{
+		int a = find(i), b = find(j);
+		if(a == b)
+			return;
+
+		double costA = empires[a].getImperialistCost(), costB = empires[b].getImperialistCost();
+		if(costB < costA || (costB == costA && b < a))
+			parent[a] = b;
+		else
+			parent[b] = a;
+	}
+}
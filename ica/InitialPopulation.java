@@ -0,0 +1,190 @@
+package ica;
+
+import java.util.stream.IntStream;
+
+import problem.Problem;
+
+/**
+ * The evaluated initial population of countries of a run, kept in one flat array of
+ * positions together with the costs and the order of the countries from the best to the
+ * worst. Large populations are generated in parallel: the population is divided into
+ * blocks of {@value #BLOCK_SIZE} countries and each block draws its positions from its own
+ * generator, split in turn from the generator of the run, so the population does not
+ * depend on the number of threads or on the order in which the blocks are generated.
+ *
+ * <p>A population is never modified after it is created, so the runs of a batch that start
+ * from the same countries share one population that is evaluated and sorted once. Each run
+ * copies the countries into its own empires before it changes them.
+ *
+ * <p>The whole population is evaluated with one batch call, so it is evaluated in parallel
+ * batches when the problem is a {@link problem.ParallelProblem}. The order of the countries
+ * is found with a stable merge sort of primitive indexes.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+class InitialPopulation
+{
+	/**
+	 * The number of countries that are generated from the same random number generator.
+	 */
+	static final int BLOCK_SIZE = 1024;
+
+	private final Problem problem;
+	private final int dimension;
+	private final int size;
+	private final double[] positions;
+	private final double[] costs;
+	private final int[] order;
+
+	private InitialPopulation(Problem problem, double[] positions, int size)
+	{
+		this.problem = problem;
+		this.dimension = problem.getDimension();
+		this.size = size;
+		this.positions = positions;
+		this.costs = new double[size];
+		problem.valuesAt(positions, 0, size, costs);
+		this.order = ICAUtils.sortIndexes(costs, size);
+	}
+
+	/**
+	 * Generates a population of countries that are uniformly distributed in the search space
+	 * of a problem and evaluates it.
+	 * @param problem the problem whose search space the countries are generated in.
+	 * @param size the number of countries.
+	 * @param random the generator of the run. One generator is split from it for each block
+	 * of countries.
+	 * @return the evaluated population.
+	 */
+	static InitialPopulation generate(Problem problem, int size, RandomSource random)
+	{
+		if(size <= 0)
+			throw new IllegalArgumentException("Population size must be positive.");
+		if((long)size * problem.getDimension() > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Population is too large: " + size);
+
+		int dimension = problem.getDimension();
+		double[] lowerBounds = problem.getLowerBounds().clone();
+		double[] upperBounds = problem.getUpperBounds().clone();
+		double[] positions = new double[size * dimension];
+
+		// The generators are split before the blocks are generated so that each block gets
+		// the same generator whichever thread generates it
+		int numOfBlocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		RandomSource[] generators = new RandomSource[numOfBlocks];
+		for(int b = 0; b < numOfBlocks; b++)
+			generators[b] = random.split();
+
+		IntStream.range(0, numOfBlocks).parallel().forEach(b ->
+		{
+			double[] row = new double[dimension];
+			int end = Math.min(size, (b + 1) * BLOCK_SIZE);
+			for(int i = b * BLOCK_SIZE; i < end; i++)
+			{
+				generators[b].nextDoubles(row, dimension);
+				int offset = i * dimension;
+				for(int j = 0; j < dimension; j++)
+					positions[offset + j] = (upperBounds[j] - lowerBounds[j]) * row[j] + lowerBounds[j];
+			}
+		});
+
+		return new InitialPopulation(problem, positions, size);
+	}
+
+	/**
+	 * Evaluates a given population of countries.
+	 * @param problem the problem that the countries are evaluated with.
+	 * @param population a matrix that each row of it is the position of a country. Each row
+	 * must have the dimension of the problem. The rows are copied.
+	 * @return the evaluated population.
+	 */
+	static InitialPopulation of(Problem problem, double[][] population)
+	{
+		if(population == null || population.length == 0)
+			throw new IllegalArgumentException("Initial population cannot be null.");
+		for(int i = 0; i < population.length; i++)
+			if(population[i] == null || population[i].length != problem.getDimension())
+				throw new IllegalArgumentException("Country " + i + " of the initial population does not match the problem dimension: "
+												   + problem.getDimension());
+
+		return new InitialPopulation(problem, ICAUtils.flatten(population), population.length);
+	}
+
+	/**
+	 * Returns the problem that the countries were evaluated with.
+	 * @return the problem of the population.
+	 */
+	Problem getProblem()
+	{
+		return problem;
+	}
+
+	/**
+	 * Returns the dimension of the positions of the countries.
+	 * @return the dimension of the population.
+	 */
+	int getDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * Returns the number of countries of the population.
+	 * @return the size of the population.
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the positions of all countries, one after another. The returned array is not
+	 * a copy and must not be modified.
+	 * @return the positions of the countries.
+	 */
+	double[] getPositions()
+	{
+		return positions;
+	}
+
+	/**
+	 * Returns the costs of all countries. The returned array is not a copy and must not be
+	 * modified.
+	 * @return the costs of the countries.
+	 */
+	double[] getCosts()
+	{
+		return costs;
+	}
+
+	/**
+	 * Returns the index of the country that has a given rank in the population.
+	 * @param rank the rank of the country; the best country has rank zero.
+	 * @return the index of the country in {@link #getPositions()} and {@link #getCosts()}.
+	 */
+	int indexOf(int rank)
+	{
+		return order[rank];
+	}
+
+	/**
+	 * Returns the cost of the country that has a given rank in the population.
+	 * @param rank the rank of the country; the best country has rank zero.
+	 * @return the cost of the country.
+	 */
+	double costOf(int rank)
+	{
+		return costs[order[rank]];
+	}
+
+	/**
+	 * Copies the position of the country that has a given rank in the population.
+	 * @param rank the rank of the country; the best country has rank zero.
+	 * @param position the array that the position is copied to.
+	 */
+	void copyPosition(int rank, double[] position)
+	{
+		System.arraycopy(positions, order[rank] * dimension, position, 0, dimension);
+	}
+}
@@ -0,0 +1,90 @@
+package ica;
+
+import problem.Problem;
+
+/**
+ * A decorator that counts the evaluations of a problem and measures the time spent in them
+ * separately for each thread, so that {@link RunMetrics} can attribute them to the phase that
+ * the thread is running. It is only used when {@link PhaseMetrics#ENABLED} is set.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+class MeteredProblem extends Problem
+{
+	private static final long serialVersionUID = -4729950133283542167L;
+
+	private Problem problem;
+
+	/**
+	 * The counters of each thread: the number of evaluations, the time spent in them and the
+	 * values of both at the start of the current phase.
+	 */
+	private transient ThreadLocal<long[]> counters = ThreadLocal.withInitial(() -> new long[4]);
+
+	public MeteredProblem(Problem problem)
+	{
+		super(problem.getName(), problem.getLowerBounds(), problem.getUpperBounds());
+		this.problem = problem;
+	}
+
+	/**
+	 * Returns the counters of the current thread.
+	 * @return an array that holds the number of evaluations, the time spent in them and two
+	 * slots that {@link RunMetrics} uses to remember their values at the start of a phase.
+	 */
+	long[] counters()
+	{
+		return counters.get();
+	}
+
+	@Override
+	public double valueAt(double[] input)
+	{
+		long[] c = counters.get();
+		long start = System.nanoTime();
+		double value = problem.valueAt(input);
+		c[1] += System.nanoTime() - start;
+		c[0]++;
+		return value;
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		long[] c = counters.get();
+		long start = System.nanoTime();
+		problem.valuesAt(points, fromPoint, toPoint, values);
+		c[1] += System.nanoTime() - start;
+		c[0] += toPoint - fromPoint;
+	}
+
+	@Override
+	public boolean isSeparable()
+	{
+		return problem.isSeparable();
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return problem.termAt(index, x);
+	}
+
+	@Override
+	public double valueAfterChange(double value, double[] point, int index, double x)
+	{
+		long[] c = counters.get();
+		long start = System.nanoTime();
+		double retval = problem.valueAfterChange(value, point, index, x);
+		c[1] += System.nanoTime() - start;
+		c[0]++;
+		return retval;
+	}
+
+	@Override
+	public String toString()
+	{
+		return problem.toString();
+	}
+}
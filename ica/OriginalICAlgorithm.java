@@ -22,7 +22,6 @@ import java.io.FileOutputStream;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Random;
 
 import problem.Problem;
 
@@ -55,7 +54,7 @@ public class OriginalICAlgorithm
 
 	static PrintWriter pw;
 
-	Random r = new Random(System.currentTimeMillis());
+	RandomSource r = new RandomSource();
 	Empire[] empiresList = new Empire[numOfInitialImperialists];	// List of Empires
 	// The initial countries with their positions
 	//private double[] initialCosts;						// The costs of the initial countries
@@ -187,7 +186,7 @@ public class OriginalICAlgorithm
 		if(minimumCost > imperialistCosts[minIndex])
 		{
 			minimumCost = imperialistCosts[minIndex];
-			bestDecadePosition = empiresList[minIndex].getImperialistPosition();
+			System.arraycopy(empiresList[minIndex].getImperialistPosition(), 0, bestDecadePosition, 0, bestDecadePosition.length);
 		}
 		
 		//meanCost[decade] = utils.getMean(imperialistCosts);
@@ -225,27 +224,14 @@ public class OriginalICAlgorithm
 	 */
 	private double[] getCountriesCosts(double[][] countriesArray) 
 	{
+		// Evaluate all countries in one batch from a flat copy of their positions
 		double[] costsVector = new double[countriesArray.length];
-		for(int i=0; i<countriesArray.length; i++)
-		{
-			costsVector[i] = getCountryCost(countriesArray[i]);
-		}
+		problem.valuesAt(ICAUtils.flatten(countriesArray), countriesArray.length, costsVector);
 		return costsVector;
 	}
 
 	
 
-	/**
-	 * Returns the cost of one country
-	 * @param country the country
-	 * @return the cost
-	 */
-	private double getCountryCost(double[] country) 
-	{
-		return problem.valueAt(country);
-	}
-
-
 	/**
 	 * Sorts an array according to its values and sorts another array in the same order
 	 * The lowest value is put first
@@ -380,8 +366,8 @@ public class OriginalICAlgorithm
 			int[] R = Arrays.copyOfRange(randomIndex, 0, allImperialistNumOfColonies[i]);
 			randomIndex = Arrays.copyOfRange(randomIndex, allImperialistNumOfColonies[i], randomIndex.length);
 			
-			empiresList[i].setImperialistPosition(allImperialistsPosition[i]);
-			empiresList[i].setColoniesPosition(utils.extractGivenArrayParts(allColoniesPosition, R));
+			empiresList[i].setImperialistPosition(allImperialistsPosition[i], allImperialistsCost[i]);
+			empiresList[i].setColoniesPosition(utils.extractGivenArrayParts(allColoniesPosition, R), utils.extractGivenArrayParts(allColoniesCost, R));
 			//empiresList[i].setColoniesCost(utils.extractGivenArrayParts(allColoniesCost, R));
 			//empiresList[i].setTotalCost(empiresList[i].getImperialistCost() + zeta * utils.getMean(empiresList[i].getColoniesCost()));
 			empiresList[i].updateTotalCost();
@@ -390,7 +376,7 @@ public class OriginalICAlgorithm
 		// If an empire has no colony, give it one
 		for(int i=0; i<empiresList.length; i++)
 		{
-			if(empiresList[i].getColoniesPosition().length == 0)
+			if(empiresList[i].getNumberOfColonies() == 0)
 			{
 				empiresList[i].setColoniesPosition(generateNewCountries(1));
 				empiresList[i].updateTotalCost();
@@ -407,24 +393,18 @@ public class OriginalICAlgorithm
 	 */
 	private void possesEmpire(Empire theEmpire)
 	{
-		// Get the costs of the colonies
-		double[] coloniesCost = theEmpire.getColoniesCost();
+		// Get the colonies and their costs
+		ColonyStore colonies = theEmpire.getColonies();
 
 		// Get the cost of the best colony (the lowest cost)
-		int bestColonyInd = ICAUtils.getMinIndex(coloniesCost);
-		double minColoniesCost = coloniesCost[bestColonyInd]; 
+		int bestColonyInd = ICAUtils.getMinIndex(colonies.getCosts(), colonies.size());
+		double minColoniesCost = colonies.getCost(bestColonyInd); 
 
 		// If this cost is lower than the one of the imperialist
 		if(minColoniesCost < theEmpire.getImperialistCost())
 		{
-			// Backup the position and cost of the former imperialist
-			double[] oldImperialistPosition = theEmpire.getImperialistPosition();
-
-			// Update the position and cost of the imperialist with the ones of the colony
-			theEmpire.setImperialistPosition(theEmpire.getColoniesPosition()[bestColonyInd]);
-
-			// Update the position and cost of the former colony with the ones of the former imperialist
-			theEmpire.setColonyPosition(bestColonyInd, oldImperialistPosition);
+			// Exchange the positions and costs of the imperialist and the colony
+			theEmpire.swapImperialistWithColony(bestColonyInd);
 			theEmpire.updateTotalCost();
 		}
 	}
@@ -473,9 +453,9 @@ public class OriginalICAlgorithm
 						worseEmpireInd=i;
 					}
 
-					// Update the positions
-					double[][] newColoniesPosition = getColonyPositionsOfUnitedEmpire(betterEmpireInd, worseEmpireInd);
-					empiresList[betterEmpireInd].setColoniesPosition(newColoniesPosition);
+					// The former worse imperialist and its colonies become colonies of the better empire
+					empiresList[betterEmpireInd].addColony(empiresList[worseEmpireInd].getImperialistPosition(), empiresList[worseEmpireInd].getImperialistCost());
+					empiresList[betterEmpireInd].addColonies(empiresList[worseEmpireInd].getColonies());
 
 					// Update the total cost of the united empire                                     
 //					empiresList[betterEmpireInd].setTotalCost(
@@ -495,45 +475,6 @@ public class OriginalICAlgorithm
 		}  
 	}
 
-	/**
-	 * Returns the positions of the colonies of the united empire (after two empires merge) 
-	 * @param betterEmpireInd the best empire
-	 * @param worseEmpireInd the worst empire
-	 * @return the corresponding colony positions
-	 */
-	private double[][] getColonyPositionsOfUnitedEmpire(int betterEmpireInd, int worseEmpireInd) 
-	{
-		int problemDimension = this.problem.getDimension();
-		// Get the new number of colonies of the united empire
-		int newSize = 
-			empiresList[betterEmpireInd].getColoniesPosition().length + 
-			1 + 
-			empiresList[worseEmpireInd].getColoniesPosition().length;
-		
-		// Create a new array to store the positions of the colonies
-		double[][] newColoniesPosition = new double[newSize][problemDimension];
-
-		// At first, store the positions of the colonies of the best empire in the array
-		int i;
-		for(i=0; i<empiresList[betterEmpireInd].getColoniesPosition().length; i++)
-		{
-			newColoniesPosition[i] = empiresList[betterEmpireInd].getColoniesPosition()[i];
-		}
-		
-		// Then add the position of the former worst imperialist
-		newColoniesPosition[i] = empiresList[worseEmpireInd].getImperialistPosition();
-		
-		// Finally, add the costs of the colonies of the worst empire
-		int i2;	
-		for(i2=i+1; i2<newSize; i2++)
-		{
-			newColoniesPosition[i2] = empiresList[worseEmpireInd].getColoniesPosition()[i2-empiresList[betterEmpireInd].getColoniesPosition().length-1];
-		}
-
-		// Return the array with the updated positions
-		return newColoniesPosition;
-	}
-
 
 
 	/**
@@ -590,12 +531,7 @@ public class OriginalICAlgorithm
 
 		// Update the positions of the colonies of the selected empire 
 		// by adding the position of the randomly selected colony of the weakest empire
-		empiresList[selectedEmpireInd].setColoniesPosition(	
-				concatenatePositions(
-						empiresList[selectedEmpireInd].getColoniesPosition(), 
-						empiresList[weakestEmpireInd].getColoniesPosition()[indexOfSelectedColony]
-				)
-		);
+		empiresList[selectedEmpireInd].addColony(empiresList[weakestEmpireInd].getColonies(), indexOfSelectedColony);
 		empiresList[selectedEmpireInd].updateTotalCost();
 
 		// Update the positions of the colonies of the weakest empire 
@@ -610,12 +546,7 @@ public class OriginalICAlgorithm
 		if(numOfColoniesOfWeakestEmpire<=1)
 		{
 			// Update the positions of the colonies by adding the collapsed imperialist
-			empiresList[selectedEmpireInd].setColoniesPosition( 
-					concatenatePositions(
-							empiresList[selectedEmpireInd].getColoniesPosition(), 
-							empiresList[weakestEmpireInd].getImperialistPosition()
-					) 
-			);
+			empiresList[selectedEmpireInd].addColony(empiresList[weakestEmpireInd].getImperialistPosition(), empiresList[weakestEmpireInd].getImperialistCost());
 			
 			// Erase the collapsed empire from the empires list
 			deleteAnEmpire(weakestEmpireInd);
@@ -626,31 +557,6 @@ public class OriginalICAlgorithm
 
 	}
 
-	/**
-	 * Concatenates the positions of an empire with an additional one
-	 * @param positions1 the positions array of the empire
-	 * @param position2 the position to add
-	 * @return the updated positions
-	 */
-	private double[][] concatenatePositions(double[][] positions1, double[] position2)
-	{
-		// Create a new array to store the updated positions 
-		double[][] newPositions = new double[positions1.length+1][positions1[0].length];
-
-		// Add the positions of the existing empire in the array
-		int i;
-		for(i=0; i<positions1.length; i++)
-		{
-			newPositions[i] = positions1[i];
-		}
-
-		// Then add the position to add at the end
-		newPositions[i] = position2;
-
-		// Return the updated positions
-		return newPositions;
-	}
-
 	
 	/**
 	 * Deletes an empire from the empires list
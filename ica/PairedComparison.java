@@ -0,0 +1,210 @@
+package ica;
+
+/**
+ * The comparison of the original ICA with the ICA that uses explorers (EICA) on pairs of runs
+ * that share their random numbers. The two runs of a pair start from the same seed, so they
+ * have the same initial population and their empires draw the same numbers for assimilation
+ * and revolution. Most of the variation between runs is common to both runs of a pair and
+ * cancels out in their difference, so a difference between the variants is detected with
+ * far fewer runs than with independent runs.
+ *
+ * <p>The differences are the best costs of EICA minus the best costs of ICA, so a negative
+ * mean difference favours EICA. The significance of the mean difference is tested with a
+ * two-sided paired t test.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class PairedComparison
+{
+	private final int pairs;
+	private final double icaMean;
+	private final double eicaMean;
+	private final double meanDifference;
+	private final double differenceDeviation;
+	private final double tStatistic;
+	private final double pValue;
+	private final double lowerBound;
+	private final double upperBound;
+	private final int eicaWins;
+	private final int icaWins;
+
+	/**
+	 * Compares the best costs of pairs of runs.
+	 * @param icaCosts the best costs of the ICA runs.
+	 * @param eicaCosts the best costs of the EICA runs. Element <code>i</code> is paired with
+	 * element <code>i</code> of <code>icaCosts</code>.
+	 * @param confidence the confidence level of the interval of the mean difference.
+	 */
+	PairedComparison(double[] icaCosts, double[] eicaCosts, double confidence)
+	{
+		if(icaCosts.length != eicaCosts.length)
+			throw new IllegalArgumentException("Number of ICA and EICA costs must be equal.");
+
+		pairs = icaCosts.length;
+		double icaSum = 0, eicaSum = 0, mean = 0, m2 = 0;
+		int eicaBetter = 0, icaBetter = 0;
+		for(int i = 0; i < pairs; i++)
+		{
+			icaSum += icaCosts[i];
+			eicaSum += eicaCosts[i];
+			double difference = eicaCosts[i] - icaCosts[i];
+			double delta = difference - mean;
+			mean += delta / (i + 1);
+			m2 += delta * (difference - mean);
+			if(difference < 0)
+				eicaBetter++;
+			else if(difference > 0)
+				icaBetter++;
+		}
+
+		icaMean = pairs > 0 ? icaSum / pairs : Double.NaN;
+		eicaMean = pairs > 0 ? eicaSum / pairs : Double.NaN;
+		meanDifference = pairs > 0 ? mean : Double.NaN;
+		eicaWins = eicaBetter;
+		icaWins = icaBetter;
+		if(pairs < 2)
+		{
+			differenceDeviation = tStatistic = pValue = Double.NaN;
+			lowerBound = Double.NEGATIVE_INFINITY;
+			upperBound = Double.POSITIVE_INFINITY;
+			return;
+		}
+
+		differenceDeviation = Math.sqrt(m2 / (pairs - 1));
+		double standardError = differenceDeviation / Math.sqrt(pairs);
+		if(standardError > 0)
+		{
+			tStatistic = mean / standardError;
+			pValue = 2 * ICAUtils.studentTCdf(-Math.abs(tStatistic), pairs - 1);
+		}
+		else
+		{
+			// All differences are equal, so any difference from zero is certain
+			tStatistic = mean == 0 ? 0 : Math.copySign(Double.POSITIVE_INFINITY, mean);
+			pValue = mean == 0 ? 1 : 0;
+		}
+
+		double halfWidth = ICAUtils.studentTQuantile((1 + confidence) / 2, pairs - 1) * standardError;
+		lowerBound = mean - halfWidth;
+		upperBound = mean + halfWidth;
+	}
+
+	/**
+	 * Returns the number of pairs whose runs both finished.
+	 * @return the number of pairs.
+	 */
+	public int getPairs()
+	{
+		return pairs;
+	}
+
+	/**
+	 * Returns the mean of the best costs of the ICA runs.
+	 * @return the mean cost of ICA.
+	 */
+	public double getIcaMean()
+	{
+		return icaMean;
+	}
+
+	/**
+	 * Returns the mean of the best costs of the EICA runs.
+	 * @return the mean cost of EICA.
+	 */
+	public double getEicaMean()
+	{
+		return eicaMean;
+	}
+
+	/**
+	 * Returns the mean of the differences, EICA minus ICA.
+	 * @return the mean difference.
+	 */
+	public double getMeanDifference()
+	{
+		return meanDifference;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the differences.
+	 * @return the standard deviation or {@link Double#NaN} if there are less than two pairs.
+	 */
+	public double getDifferenceDeviation()
+	{
+		return differenceDeviation;
+	}
+
+	/**
+	 * Returns the statistic of the paired t test.
+	 * @return the t statistic or {@link Double#NaN} if there are less than two pairs.
+	 */
+	public double getTStatistic()
+	{
+		return tStatistic;
+	}
+
+	/**
+	 * Returns the two-sided p-value of the paired t test, the probability of a mean difference
+	 * at least as large as the observed one if the variants performed equally.
+	 * @return the p-value or {@link Double#NaN} if there are less than two pairs.
+	 */
+	public double getPValue()
+	{
+		return pValue;
+	}
+
+	/**
+	 * Returns the lower bound of the confidence interval of the mean difference.
+	 * @return the lower bound.
+	 */
+	public double getLowerBound()
+	{
+		return lowerBound;
+	}
+
+	/**
+	 * Returns the upper bound of the confidence interval of the mean difference.
+	 * @return the upper bound.
+	 */
+	public double getUpperBound()
+	{
+		return upperBound;
+	}
+
+	/**
+	 * Returns the number of pairs in which EICA found a lower cost than ICA.
+	 * @return the number of pairs that EICA won.
+	 */
+	public int getEicaWins()
+	{
+		return eicaWins;
+	}
+
+	/**
+	 * Returns the number of pairs in which ICA found a lower cost than EICA.
+	 * @return the number of pairs that ICA won.
+	 */
+	public int getIcaWins()
+	{
+		return icaWins;
+	}
+
+	/**
+	 * Tells whether the mean difference is significant.
+	 * @param alpha the significance level, for example 0.05.
+	 * @return <code>true</code> if the p-value is below the significance level.
+	 */
+	public boolean isSignificant(double alpha)
+	{
+		return pValue < alpha;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "pairs: " + pairs + ", ICA mean: " + icaMean + ", EICA mean: " + eicaMean + ", mean difference: " + meanDifference
+				+ " [" + lowerBound + ", " + upperBound + "], t: " + tStatistic + ", p: " + pValue + ", EICA wins: " + eicaWins
+				+ ", ICA wins: " + icaWins;
+	}
+}
@@ -0,0 +1,249 @@
+package ica;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Cumulative time and function evaluations of the phases of {@link ICAlgorithm}. The metrics
+ * of a run are kept by a {@link RunMetrics} object, which also adds them to the metrics of its
+ * parent, if any. {@link ConcurrentICAEvaluation} uses a parent object to aggregate the
+ * metrics of all of its runs. Both are registered as JMX MBeans in the domain
+ * {@value #DOMAIN} while the runs are active.
+ *
+ * <p>Metrics are collected only if the JVM is started with <code>-Dica.metrics=true</code>.
+ * The flag is read into a constant, so when it is not set the JIT compiler removes all
+ * instrumentation code from the algorithm.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class PhaseMetrics implements PhaseMetricsMBean
+{
+	/**
+	 * <code>true</code> if metrics are collected.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("ica.metrics");
+
+	/**
+	 * The JMX domain of the metrics MBeans.
+	 */
+	public static final String DOMAIN = "ica";
+
+	/**
+	 * The phases of a decade.
+	 */
+	public enum Phase
+	{
+		ASSIMILATION, REVOLUTION, EXPLORERS, POSSESSION, UNITING, COMPETITION
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+	private static final AtomicLong ids = new AtomicLong();
+
+	private final PhaseMetrics parent;
+	private final LongAdder[] nanos = newAdders();
+	private final LongAdder[] evaluations = newAdders();
+	private final LongAdder[] objectiveNanos = newAdders();
+	private final LongAdder decades = new LongAdder();
+	private final LongAdder completedRuns = new LongAdder();
+
+	/**
+	 * Creates an object without a parent.
+	 */
+	public PhaseMetrics()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates an object whose metrics are also added to a parent object.
+	 * @param parent the parent object or <code>null</code>.
+	 */
+	public PhaseMetrics(PhaseMetrics parent)
+	{
+		this.parent = parent;
+	}
+
+	/**
+	 * Adds the time and the evaluations of one execution of a phase.
+	 * @param phase the phase.
+	 * @param elapsedNanos the time of the phase.
+	 * @param numOfEvaluations the number of evaluations of the phase.
+	 * @param elapsedObjectiveNanos the time that the phase spent in the objective function.
+	 */
+	public void record(Phase phase, long elapsedNanos, long numOfEvaluations, long elapsedObjectiveNanos)
+	{
+		int i = phase.ordinal();
+		nanos[i].add(elapsedNanos);
+		evaluations[i].add(numOfEvaluations);
+		objectiveNanos[i].add(elapsedObjectiveNanos);
+		if(parent != null)
+			parent.record(phase, elapsedNanos, numOfEvaluations, elapsedObjectiveNanos);
+	}
+
+	/**
+	 * Counts a completed decade.
+	 */
+	public void decadeCompleted()
+	{
+		decades.increment();
+		if(parent != null)
+			parent.decadeCompleted();
+	}
+
+	/**
+	 * Counts a completed run.
+	 */
+	public void runCompleted()
+	{
+		completedRuns.increment();
+		if(parent != null)
+			parent.runCompleted();
+	}
+
+	@Override
+	public String[] getPhaseNames()
+	{
+		String[] names = new String[PHASES.length];
+		for(int i = 0; i < names.length; i++)
+			names[i] = PHASES[i].name();
+
+		return names;
+	}
+
+	@Override
+	public long[] getPhaseNanos()
+	{
+		return sums(nanos);
+	}
+
+	@Override
+	public long[] getPhaseEvaluations()
+	{
+		return sums(evaluations);
+	}
+
+	@Override
+	public long[] getPhaseObjectiveNanos()
+	{
+		return sums(objectiveNanos);
+	}
+
+	@Override
+	public long getDecades()
+	{
+		return decades.sum();
+	}
+
+	@Override
+	public long getCompletedRuns()
+	{
+		return completedRuns.sum();
+	}
+
+	@Override
+	public long getObjectiveNanos()
+	{
+		long sum = 0;
+		for(LongAdder adder : objectiveNanos)
+			sum += adder.sum();
+
+		return sum;
+	}
+
+	@Override
+	public String getSummary()
+	{
+		long[] n = getPhaseNanos(), e = getPhaseEvaluations(), o = getPhaseObjectiveNanos();
+		long total = 0;
+		for(long x : n)
+			total += x;
+
+		StringBuilder sb = new StringBuilder(String.format("%-13s %12s %7s %12s %12s%n", "Phase", "Time (ms)", "Share", "Evaluations", "Objective (ms)"));
+		for(int i = 0; i < PHASES.length; i++)
+			sb.append(String.format("%-13s %12.1f %6.1f%% %12d %12.1f%n", PHASES[i], n[i] / 1e6,
+					total == 0 ? 0 : 100.0 * n[i] / total, e[i], o[i] / 1e6));
+
+		return sb.append("Decades: ").append(getDecades()).append(", completed runs: ").append(getCompletedRuns()).toString();
+	}
+
+	@Override
+	public void reset()
+	{
+		for(int i = 0; i < PHASES.length; i++)
+		{
+			nanos[i].reset();
+			evaluations[i].reset();
+			objectiveNanos[i].reset();
+		}
+		decades.reset();
+		completedRuns.reset();
+	}
+
+	/**
+	 * Registers an MBean in the platform MBean server. Failures are reported and ignored so
+	 * that they never stop a run.
+	 * @param mbean the MBean.
+	 * @param type the type key of the name of the MBean.
+	 * @param name the name key of the name of the MBean.
+	 * @return the name under which the MBean is registered or <code>null</code> if it is not
+	 * registered.
+	 */
+	static ObjectName register(Object mbean, String type, String name)
+	{
+		try
+		{
+			ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name)
+					+ ",id=" + ids.incrementAndGet());
+			ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+			return objectName;
+		} catch(JMException e)
+		{
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Removes an MBean from the platform MBean server.
+	 * @param objectName the name that {@link #register(Object, String, String)} has returned.
+	 */
+	static void unregister(ObjectName objectName)
+	{
+		if(objectName == null)
+			return;
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			if(server.isRegistered(objectName))
+				server.unregisterMBean(objectName);
+		} catch(JMException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	private static LongAdder[] newAdders()
+	{
+		LongAdder[] adders = new LongAdder[PHASES.length];
+		for(int i = 0; i < adders.length; i++)
+			adders[i] = new LongAdder();
+
+		return adders;
+	}
+
+	private static long[] sums(LongAdder[] adders)
+	{
+		long[] retval = new long[adders.length];
+		for(int i = 0; i < adders.length; i++)
+			retval[i] = adders[i].sum();
+
+		return retval;
+	}
+}
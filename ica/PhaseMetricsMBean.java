@@ -0,0 +1,55 @@
+package ica;
+
+/**
+ * The management interface of {@link PhaseMetrics}.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public interface PhaseMetricsMBean
+{
+	/**
+	 * @return the names of the phases in the order of the other phase arrays.
+	 */
+	String[] getPhaseNames();
+
+	/**
+	 * @return the cumulative wall-clock time of each phase in nanoseconds.
+	 */
+	long[] getPhaseNanos();
+
+	/**
+	 * @return the number of function evaluations of each phase.
+	 */
+	long[] getPhaseEvaluations();
+
+	/**
+	 * @return the time that each phase spent in the objective function in nanoseconds.
+	 */
+	long[] getPhaseObjectiveNanos();
+
+	/**
+	 * @return the number of decades that are completed.
+	 */
+	long getDecades();
+
+	/**
+	 * @return the number of runs that are completed.
+	 */
+	long getCompletedRuns();
+
+	/**
+	 * @return the time that was spent in the objective function in nanoseconds.
+	 */
+	long getObjectiveNanos();
+
+	/**
+	 * @return a human readable table of the metrics of all phases.
+	 */
+	String getSummary();
+
+	/**
+	 * Sets all metrics to zero.
+	 */
+	void reset();
+}
@@ -0,0 +1,184 @@
+package ica;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A random number generator that is seedable and splittable. It uses the SplitMix64 algorithm
+ * of {@link java.util.SplittableRandom} but extends {@link Random} so that it can be passed
+ * wherever the algorithm expects a {@link Random}. Unlike {@link Random}, it is not
+ * synchronized: each run and each empire own their generator, so a generator is never
+ * shared by threads and draws do not contend.
+ *
+ * <p>A run that is started with the same seed draws the same numbers and so can be replayed
+ * exactly. The generators of the empires of a run are split from the generator of the run,
+ * so they are reproducible too and do not depend on the order in which empires are evolved.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class RandomSource extends Random
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	/**
+	 * The source of the seeds of the generators that are created without a seed. It is mixed
+	 * with the time so that runs that start at the same time get different seeds.
+	 */
+	private static final AtomicLong seeds = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+	private long seed;
+	private long gamma;
+
+	/**
+	 * Creates a generator with a new, unique seed.
+	 * @see #newSeed()
+	 */
+	public RandomSource()
+	{
+		this(newSeed());
+	}
+
+	/**
+	 * Creates a generator with a given seed. Generators that are created with the same seed
+	 * generate the same sequence of numbers.
+	 * @param seed the seed of the generator.
+	 */
+	public RandomSource(long seed)
+	{
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	private RandomSource(long seed, long gamma)
+	{
+		super(0);
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Returns a seed that is different from the seeds that this method has returned before.
+	 * @return a new seed.
+	 */
+	public static long newSeed()
+	{
+		return mix64(seeds.getAndAdd(2 * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Creates a new generator from this generator. The new generator is statistically
+	 * independent of this one and the state of this generator is advanced, so a sequence of
+	 * splits creates a reproducible sequence of independent generators.
+	 * @return a new generator.
+	 */
+	public RandomSource split()
+	{
+		return new RandomSource(nextLong(), mixGamma(nextSeed()));
+	}
+
+	/**
+	 * Resets the generator to a seed. The sequence of numbers that it generates afterwards is
+	 * the sequence of a generator that is created with the same seed.
+	 * @param seed the new seed.
+	 */
+	@Override
+	public void setSeed(long seed)
+	{
+		// Called by the constructor of Random, before the fields of this class are initialized
+		this.seed = seed;
+		this.gamma = GOLDEN_GAMMA;
+	}
+
+	/**
+	 * Fills a part of an array with random numbers that are uniformly distributed between
+	 * zero (inclusive) and one (exclusive). The numbers are the numbers that <code>n</code>
+	 * calls to {@link #nextDouble()} would return.
+	 * @param values the array that is filled.
+	 * @param n the number of elements from the start of the array that are filled.
+	 */
+	public void nextDoubles(double[] values, int n)
+	{
+		if(n < 0 || n > values.length)
+			throw new IllegalArgumentException("The number of values must be between zero and the length of the array.");
+
+		long s = seed;
+		for(int i = 0; i < n; i++)
+		{
+			s += gamma;
+			values[i] = (mix64(s) >>> 11) * DOUBLE_UNIT;
+		}
+		seed = s;
+	}
+
+	@Override
+	protected int next(int bits)
+	{
+		return (int)(mix64(nextSeed()) >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt()
+	{
+		return (int)(mix64(nextSeed()) >>> 32);
+	}
+
+	@Override
+	public int nextInt(int bound)
+	{
+		if(bound <= 0)
+			throw new IllegalArgumentException("The bound must be positive.");
+
+		// Lemire's multiply and reject method, which avoids the division of Random.nextInt
+		long m = (nextInt() & 0xffffffffL) * bound;
+		if((m & 0xffffffffL) < bound)
+		{
+			long threshold = (1L << 32) % bound;
+			while((m & 0xffffffffL) < threshold)
+				m = (nextInt() & 0xffffffffL) * bound;
+		}
+
+		return (int)(m >>> 32);
+	}
+
+	@Override
+	public long nextLong()
+	{
+		return mix64(nextSeed());
+	}
+
+	@Override
+	public double nextDouble()
+	{
+		return (mix64(nextSeed()) >>> 11) * DOUBLE_UNIT;
+	}
+
+	@Override
+	public boolean nextBoolean()
+	{
+		return mix64(nextSeed()) < 0;
+	}
+
+	private long nextSeed()
+	{
+		return seed += gamma;
+	}
+
+	private static long mix64(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static long mixGamma(long z)
+	{
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
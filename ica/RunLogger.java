@@ -0,0 +1,273 @@
+package ica;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the progress of one run of {@link ICAlgorithm} to a file without blocking the run on
+ * file I/O. The run thread only stores the decade and the best cost into a preallocated ring
+ * buffer; a background writer thread formats the entries and writes them in batches. If the
+ * buffer is full, the run waits until the writer has made room, so no entry is lost.
+ * {@link #close()} writes all remaining entries and flushes the file.
+ *
+ * <p>A {@link Sampling} policy selects the decades that are logged. With
+ * {@link Sampling#EVERY_DECADE} each line contains the best cost of one decade, as in the
+ * original log files. With the other policies each line contains the decade and the best cost
+ * separated by a comma. The last decade of a run is always logged.
+ *
+ * <p>{@link #log(int, double)} must be called from one thread only.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class RunLogger implements Closeable
+{
+	/**
+	 * The policies that select the decades that are logged.
+	 */
+	public enum Sampling
+	{
+		/**
+		 * Every decade is logged.
+		 */
+		EVERY_DECADE,
+		/**
+		 * Decades 1 to 10, then every 10th decade up to 100, every 100th decade up to 1000 and
+		 * so on are logged, so that the size of the log grows with the logarithm of the number
+		 * of decades.
+		 */
+		LOG_SPACED,
+		/**
+		 * Only the decades in which the best cost has improved are logged.
+		 */
+		ON_IMPROVEMENT
+	}
+
+	/**
+	 * The default number of entries of the ring buffer.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * The time that the writer sleeps when the buffer is empty.
+	 */
+	private static final long WRITER_PARK_NANOS = 10000000L;
+
+	private final Sampling sampling;
+	private final int[] decades;
+	private final double[] costs;
+	private final int mask;
+
+	/**
+	 * The number of entries that were put into and taken from the buffer. The buffer holds the
+	 * entries between <code>tail</code> and <code>head</code>.
+	 */
+	private volatile long head;
+	private volatile long tail;
+
+	private final Writer out;
+	private final Thread writer;
+	private volatile boolean closed;
+	private volatile IOException failure;
+
+	private int lastLoggedDecade = -1;
+	private double lastLoggedCost = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Creates a logger with the default capacity.
+	 * @param file the log file.
+	 * @param append if <code>true</code>, entries are added to the end of the file.
+	 * @param sampling the decades that are logged.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public RunLogger(File file, boolean append, Sampling sampling) throws IOException
+	{
+		this(file, append, sampling, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a logger and starts its writer thread.
+	 * @param file the log file.
+	 * @param append if <code>true</code>, entries are added to the end of the file.
+	 * @param sampling the decades that are logged.
+	 * @param capacity the number of entries of the ring buffer. It is rounded up to a power of
+	 * two.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public RunLogger(File file, boolean append, Sampling sampling, int capacity) throws IOException
+	{
+		if(sampling == null)
+			throw new IllegalArgumentException("Sampling cannot be null.");
+		if(capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be a positive value.");
+
+		int size = Integer.highestOneBit(capacity);
+		if(size < capacity)
+			size <<= 1;
+
+		this.sampling = sampling;
+		this.decades = new int[size];
+		this.costs = new double[size];
+		this.mask = size - 1;
+		this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append)), 1 << 16);
+		this.writer = new Thread(this::write, "RunLogger-" + file.getName());
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Logs the best cost of a decade if the sampling policy selects the decade.
+	 * @param decade the decade.
+	 * @param cost the best cost up to the end of the decade.
+	 */
+	public void log(int decade, double cost)
+	{
+		boolean sampled;
+		switch(sampling)
+		{
+		case LOG_SPACED:
+			sampled = isLogSpaced(decade + 1);
+			break;
+		case ON_IMPROVEMENT:
+			sampled = cost < lastLoggedCost;
+			break;
+		default:
+			sampled = true;
+		}
+
+		if(sampled)
+			put(decade, cost);
+	}
+
+	/**
+	 * Logs the last decade of a run unless it is already logged.
+	 * @param decade the last decade of the run.
+	 * @param cost the best cost of the run.
+	 */
+	public void logLast(int decade, double cost)
+	{
+		if(decade >= 0 && decade != lastLoggedDecade)
+			put(decade, cost);
+	}
+
+	/**
+	 * Writes all logged entries, flushes and closes the file and stops the writer thread.
+	 * @throws IOException if writing to the file has failed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if(closed)
+			return;
+
+		closed = true;
+		LockSupport.unpark(writer);
+		boolean interrupted = false;
+		while(writer.isAlive())
+		{
+			try
+			{
+				writer.join();
+			} catch(InterruptedException e)
+			{
+				interrupted = true;
+			}
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+
+		if(failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Tells whether a number has the form <code>k * 10^m</code> with <code>1 &lt;= k &lt;= 10</code>.
+	 */
+	static boolean isLogSpaced(int n)
+	{
+		int step = 1;
+		while(n > 10 * step)
+			step *= 10;
+
+		return n % step == 0;
+	}
+
+	private void put(int decade, double cost)
+	{
+		long h = head;
+		while(h - tail > mask)
+		{
+			// The buffer is full; wake the writer and wait for it to make room
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(100000L);
+		}
+
+		int index = (int)h & mask;
+		decades[index] = decade;
+		costs[index] = cost;
+		head = h + 1;
+		lastLoggedDecade = decade;
+		lastLoggedCost = cost;
+
+		if(h + 1 - tail > (mask >> 1))
+			LockSupport.unpark(writer);
+	}
+
+	/**
+	 * The loop of the writer thread. It writes the entries between the tail and the head of
+	 * the buffer in one batch and sleeps when the buffer is empty.
+	 */
+	private void write()
+	{
+		StringBuilder batch = new StringBuilder();
+		while(true)
+		{
+			// Read the flag before the head so that the entries of a closed logger are all seen
+			boolean done = closed;
+			long h = head, t = tail;
+			if(h == t)
+			{
+				if(done)
+					break;
+				LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+				continue;
+			}
+
+			for(; t < h; t++)
+			{
+				int index = (int)t & mask;
+				if(sampling != Sampling.EVERY_DECADE)
+					batch.append(decades[index]).append(',');
+				batch.append(costs[index]).append('\n');
+			}
+			tail = h;
+
+			if(failure == null)
+			{
+				try
+				{
+					out.write(batch.toString());
+				} catch(IOException e)
+				{
+					failure = e;
+				}
+			}
+			batch.setLength(0);
+		}
+
+		try
+		{
+			out.close();
+		} catch(IOException e)
+		{
+			if(failure == null)
+				failure = e;
+		}
+	}
+}
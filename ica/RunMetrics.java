@@ -0,0 +1,97 @@
+package ica;
+
+/**
+ * The metrics of one run of {@link ICAlgorithm}. Besides the time and evaluations of each
+ * phase, it reports the number of empires and of their colonies. The run publishes these gauges
+ * at the end of each decade, so a JMX thread never reads the empires while the run changes them.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class RunMetrics extends PhaseMetrics implements RunMetricsMBean
+{
+	private final ICAlgorithm algorithm;
+	private final MeteredProblem problem;
+
+	/**
+	 * The number of colonies of each empire at the end of the last decade. A new array is
+	 * published for each decade and is never changed after that.
+	 */
+	private volatile int[] coloniesPerEmpire;
+
+	RunMetrics(ICAlgorithm algorithm, MeteredProblem problem, PhaseMetrics parent)
+	{
+		super(parent);
+		this.algorithm = algorithm;
+		this.problem = problem;
+		publishEmpires();
+	}
+
+	/**
+	 * Publishes the empires of the algorithm for the readers of the metrics. It must be called
+	 * on the thread that runs the algorithm.
+	 */
+	private void publishEmpires()
+	{
+		Empire[] empires = algorithm.empiresList;
+		int[] counts = new int[empires == null ? 0 : Math.min(algorithm.numOfEmpires, empires.length)];
+		for(int i = 0; i < counts.length; i++)
+			counts[i] = empires[i].getNumberOfColonies();
+
+		coloniesPerEmpire = counts;
+	}
+
+	@Override
+	public void decadeCompleted()
+	{
+		publishEmpires();
+		super.decadeCompleted();
+	}
+
+	/**
+	 * Starts measuring a phase on the current thread.
+	 * @return the start time of the phase.
+	 */
+	long start()
+	{
+		long[] c = problem.counters();
+		c[2] = c[0];
+		c[3] = c[1];
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records a phase that has run on the current thread since the given time and starts
+	 * measuring the next phase.
+	 * @param phase the phase that has finished.
+	 * @param startNanos the start time of the phase.
+	 * @return the start time of the next phase.
+	 */
+	long end(Phase phase, long startNanos)
+	{
+		long now = System.nanoTime();
+		long[] c = problem.counters();
+		record(phase, now - startNanos, c[0] - c[2], c[1] - c[3]);
+		c[2] = c[0];
+		c[3] = c[1];
+		return now;
+	}
+
+	@Override
+	public long getEvaluations()
+	{
+		return algorithm.getNumberOfEvaluations();
+	}
+
+	@Override
+	public int getEmpireCount()
+	{
+		return coloniesPerEmpire.length;
+	}
+
+	@Override
+	public int[] getColoniesPerEmpire()
+	{
+		return coloniesPerEmpire.clone();
+	}
+}
@@ -0,0 +1,26 @@
+package ica;
+
+/**
+ * The management interface of {@link RunMetrics}.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public interface RunMetricsMBean extends PhaseMetricsMBean
+{
+	/**
+	 * @return the number of function evaluations of the run, including the evaluations of
+	 * the initial population.
+	 */
+	long getEvaluations();
+
+	/**
+	 * @return the number of empires of the run.
+	 */
+	int getEmpireCount();
+
+	/**
+	 * @return the number of colonies of each empire of the run.
+	 */
+	int[] getColoniesPerEmpire();
+}
@@ -0,0 +1,237 @@
+package ica;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+import ica.TerminationCriteria.StopReason;
+
+/**
+ * Executes batches of independent runs of {@link ICAlgorithm} on a work-stealing pool whose
+ * size is the number of available processors, whatever the size of the batches. The results
+ * are consumed in the order in which the runs complete and are added to a
+ * {@link BatchResult} as they arrive, so a slow run does not hold back the results of the
+ * runs that were submitted after it.
+ *
+ * <p>A batch can be cancelled: runs that have not started yet are dropped and runs that are in
+ * progress stop at the end of their current decade. The statistics of a cancelled batch only
+ * include the runs that finished. A batch can also be given a target cost, in which case it
+ * is cancelled as soon as one of its runs finishes with a cost that is not above the target.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+class RunScheduler
+{
+	private final ForkJoinPool pool;
+
+	/**
+	 * The cancellation flags of the batches that are in progress.
+	 */
+	private final Set<AtomicBoolean> batches = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates a scheduler that uses one thread for each available processor.
+	 */
+	RunScheduler()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a scheduler.
+	 * @param parallelism the number of runs that are executed at the same time. It must be
+	 * positive.
+	 */
+	RunScheduler(int parallelism)
+	{
+		if(parallelism <= 0)
+			throw new IllegalArgumentException("Parallelism must be a positive value.");
+
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Returns the number of runs that are executed at the same time.
+	 * @return the parallelism of the scheduler.
+	 */
+	int getParallelism()
+	{
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Executes a batch of runs and waits for all of them to finish or to be dropped. If the
+	 * calling thread is interrupted, the batch is cancelled and the interrupt is restored
+	 * when the runs in progress have stopped.
+	 * @param runs the runs of the batch. The index of a run in the list is its index in the
+	 * result.
+	 * @return the result of the batch.
+	 */
+	BatchResult execute(List<ICACallable> runs)
+	{
+		return execute(runs, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Executes a batch of runs that is cancelled when one of its runs reaches a target cost,
+	 * and waits for all of them to finish, stop or to be dropped. The runs should stop by
+	 * themselves when they reach the target, for example with
+	 * {@link TerminationCriteria#setTargetCost(double)}; the batch is cancelled when such a run
+	 * has finished.
+	 * @param runs the runs of the batch. The index of a run in the list is its index in the
+	 * result.
+	 * @param targetCost the cost at or below which a finished run cancels the batch.
+	 * @return the result of the batch.
+	 */
+	BatchResult execute(List<ICACallable> runs, double targetCost)
+	{
+		return execute(runs::get, runs.size(), runs.size(), targetCost, null);
+	}
+
+	/**
+	 * Executes a batch whose runs are launched adaptively and waits for the runs that were
+	 * launched to finish. The scheduler keeps all of its threads busy: it launches at least
+	 * the minimum number of runs and as many runs as it has threads, and launches another
+	 * run whenever one finishes until the batch is done or the maximum number of runs has
+	 * been launched. When the batch is done, the runs that are in progress are completed and
+	 * included in the result.
+	 * @param runs creates the run of each index.
+	 * @param minRuns the number of runs that are launched at least.
+	 * @param maxRuns the number of runs that are launched at most.
+	 * @param isDone tells whether the batch needs no more runs. It is tested after each run
+	 * has finished.
+	 * @return the result of the batch.
+	 */
+	BatchResult execute(IntFunction<ICACallable> runs, int minRuns, int maxRuns, Predicate<BatchResult> isDone)
+	{
+		return execute(runs, Math.max(minRuns, getParallelism()), maxRuns, Double.NEGATIVE_INFINITY, isDone);
+	}
+
+	private BatchResult execute(IntFunction<ICACallable> runs, int initialRuns, int maxRuns, double targetCost, 
+								Predicate<BatchResult> isDone)
+	{
+		AtomicBoolean cancelled = new AtomicBoolean();
+		BlockingQueue<Run> completed = new LinkedBlockingQueue<Run>();
+		BatchResult batch = new BatchResult(maxRuns);
+		batches.add(cancelled);
+		try
+		{
+			int remaining = 0;
+			for(; remaining < Math.min(initialRuns, maxRuns); remaining++)
+				launch(runs, batch, cancelled, completed);
+
+			boolean interrupted = false;
+			while(remaining > 0)
+			{
+				Run run;
+				try
+				{
+					run = completed.take();
+				} catch (InterruptedException e)
+				{
+					interrupted = true;
+					cancelled.set(true);
+					continue;
+				}
+
+				remaining--;
+				run.addTo(batch);
+				if(batch.getTargetRun() < 0 && run.hasReached(targetCost))
+				{
+					batch.setTargetRun(run.index);
+					cancelled.set(true);
+				}
+
+				if(batch.getNumberOfRuns() < maxRuns && !cancelled.get() && isDone != null && !isDone.test(batch))
+				{
+					launch(runs, batch, cancelled, completed);
+					remaining++;
+				}
+			}
+
+			if(interrupted)
+				Thread.currentThread().interrupt();
+			return batch;
+		} finally
+		{
+			batches.remove(cancelled);
+		}
+	}
+
+	private void launch(IntFunction<ICACallable> runs, BatchResult batch, AtomicBoolean cancelled, BlockingQueue<Run> completed)
+	{
+		int index = batch.launch();
+		ICACallable callable = runs.apply(index);
+		callable.setCancellation(cancelled);
+		pool.execute(new Run(index, callable, cancelled, completed));
+	}
+
+	/**
+	 * Cancels all batches that are in progress.
+	 */
+	void cancel()
+	{
+		for(AtomicBoolean cancelled : batches)
+			cancelled.set(true);
+	}
+
+	/**
+	 * One run of a batch. When it finishes, fails or is dropped, it puts itself in the queue
+	 * of the completed runs of its batch.
+	 */
+	private static class Run implements Runnable
+	{
+		private final int index;
+		private final ICACallable callable;
+		private final AtomicBoolean cancelled;
+		private final BlockingQueue<Run> completed;
+		private ICAResult result;
+		private Throwable error;
+
+		Run(int index, ICACallable callable, AtomicBoolean cancelled, BlockingQueue<Run> completed)
+		{
+			this.index = index;
+			this.callable = callable;
+			this.cancelled = cancelled;
+			this.completed = completed;
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				if(!cancelled.get())
+					result = callable.call();
+			} catch (Throwable e)
+			{
+				error = e;
+			} finally
+			{
+				completed.add(this);
+			}
+		}
+
+		void addTo(BatchResult batch)
+		{
+			if(error != null)
+				batch.addFailed(index, error);
+			else if(result == null)
+				batch.addDropped(index);
+			else
+				batch.add(index, result);
+		}
+
+		boolean hasReached(double targetCost)
+		{
+			return result != null && result.getStopReason() != StopReason.CANCELLED && result.getBestCost() <= targetCost;
+		}
+	}
+}
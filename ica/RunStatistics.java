@@ -0,0 +1,174 @@
+package ica;
+
+import ica.TerminationCriteria.StopReason;
+
+/**
+ * The statistics of a batch of runs of {@link ICAlgorithm}. The results are added one at a
+ * time as the runs complete, in any order, and the mean and the variance of the best costs
+ * are updated with Welford's algorithm, so no result has to be kept and the statistics are
+ * accurate even when the costs are large and close to each other.
+ *
+ * <p>Runs that were cancelled before they finished are counted but are not included in the
+ * statistics because their results are not comparable with the results of complete runs.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class RunStatistics
+{
+	private int count;
+	private double mean;
+	private double m2;
+	private long evaluations;
+	private double best = Double.MAX_VALUE;
+	private int bestRunIndex = -1;
+	private int cancelled;
+	private int failed;
+
+	/**
+	 * Adds the result of a run to the statistics.
+	 * @param runIndex the index of the run in its batch.
+	 * @param result the result of the run.
+	 */
+	void add(int runIndex, ICAResult result)
+	{
+		if(result.getStopReason() == StopReason.CANCELLED)
+		{
+			cancelled++;
+			return;
+		}
+
+		double cost = result.getBestCost();
+		count++;
+		double delta = cost - mean;
+		mean += delta / count;
+		m2 += delta * (cost - mean);
+		evaluations += result.getEvaluations();
+
+		// Ties go to the lower index so that the statistics do not depend on the completion order
+		if(Math.abs(cost) < Math.abs(best) || (Math.abs(cost) == Math.abs(best) && runIndex < bestRunIndex))
+		{
+			best = cost;
+			bestRunIndex = runIndex;
+		}
+	}
+
+	/**
+	 * Records a run that was cancelled before it started.
+	 */
+	void addCancelled()
+	{
+		cancelled++;
+	}
+
+	/**
+	 * Records a run that failed with an exception.
+	 */
+	void addFailed()
+	{
+		failed++;
+	}
+
+	/**
+	 * Returns the number of runs that finished and are included in the statistics.
+	 * @return the number of finished runs.
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the number of runs that were cancelled, whether they had started or not.
+	 * @return the number of cancelled runs.
+	 */
+	public int getCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * Returns the number of runs that failed with an exception.
+	 * @return the number of failed runs.
+	 */
+	public int getFailed()
+	{
+		return failed;
+	}
+
+	/**
+	 * Returns the mean of the best costs of the finished runs.
+	 * @return the mean or {@link Double#NaN} if no run has finished.
+	 */
+	public double getMean()
+	{
+		return count > 0 ? mean : Double.NaN;
+	}
+
+	/**
+	 * Returns the population variance of the best costs of the finished runs, the sum of the
+	 * squared deviations divided by the number of runs.
+	 * @return the variance or {@link Double#NaN} if no run has finished.
+	 */
+	public double getVariance()
+	{
+		return count > 0 ? m2 / count : Double.NaN;
+	}
+
+	/**
+	 * Returns the sample variance of the best costs of the finished runs, the sum of the
+	 * squared deviations divided by the number of runs minus one.
+	 * @return the sample variance or {@link Double#NaN} if less than two runs have finished.
+	 */
+	public double getSampleVariance()
+	{
+		return count > 1 ? m2 / (count - 1) : Double.NaN;
+	}
+
+	/**
+	 * Returns the best cost of the finished runs, the one whose absolute value is the lowest.
+	 * @return the best cost or {@link Double#MAX_VALUE} if no run has finished.
+	 */
+	public double getBest()
+	{
+		return best;
+	}
+
+	/**
+	 * Returns the index of the run that found the best cost.
+	 * @return the index of the best run or -1 if no run has finished.
+	 */
+	public int getBestRunIndex()
+	{
+		return bestRunIndex;
+	}
+
+	/**
+	 * Returns the mean number of function evaluations of the finished runs.
+	 * @return the mean number of evaluations or {@link Double#NaN} if no run has finished.
+	 */
+	public double getMeanEvaluations()
+	{
+		return count > 0 ? (double)evaluations / count : Double.NaN;
+	}
+
+	/**
+	 * Returns the statistics in the format of the return value of
+	 * {@link ConcurrentICAEvaluation#icaTestOnAFunction(problem.Problem, int, boolean)}:
+	 * the best cost, the mean, the variance, the index of the best run and the mean number
+	 * of evaluations.
+	 * @return an array of length 5 with the statistics.
+	 */
+	public double[] toArray()
+	{
+		// The third element has always been the value of ICAUtils.getSTD, which is the population variance
+		return new double[] {best, getMean(), getVariance(), Math.max(bestRunIndex, 0), getMeanEvaluations()};
+	}
+
+	@Override
+	public String toString()
+	{
+		return "runs: " + count + ", cancelled: " + cancelled + ", failed: " + failed + ", best: " + best + ", mean: " + getMean()
+				+ ", variance: " + getVariance() + ", best run: " + bestRunIndex + ", mean evaluations: " + getMeanEvaluations();
+	}
+}
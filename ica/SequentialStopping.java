@@ -0,0 +1,233 @@
+package ica;
+
+import java.util.Arrays;
+
+/**
+ * The rule that decides how many runs a batch needs, for batches that are launched
+ * adaptively with {@link ConcurrentICAEvaluation#icaTestUntilPrecise(problem.Problem, boolean,
+ * SequentialStopping)}. New runs are launched until the confidence interval of the mean of
+ * the best costs, or of a quantile of them, is narrow enough, but never fewer than the
+ * minimum or more than the maximum number of runs.
+ *
+ * <p>The interval of the mean is the Student t interval. The interval of a quantile is
+ * distribution-free: its bounds are the order statistics whose ranks are given by the normal
+ * approximation of the binomial distribution, and it is unbounded until enough runs have
+ * finished. The interval is narrow enough when its half-width is not more than the
+ * precision or not more than the relative precision times the absolute value of the
+ * estimate; a precision of zero is disabled. Example:
+ * <pre>
+ * SequentialStopping stopping = new SequentialStopping();
+ * stopping.setRelativePrecision(0.01);
+ * stopping.setRuns(10, 200);
+ * ConcurrentICAEvaluation.icaTestUntilPrecise(pr, true, stopping);
+ * </pre>
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class SequentialStopping
+{
+	private double confidence = 0.95;
+	private double quantile = Double.NaN;
+	private double precision = 0;
+	private double relativePrecision = 0.05;
+	private int minRuns = 5;
+	private int maxRuns = 100;
+
+	/**
+	 * Returns the confidence level of the interval.
+	 * @return the confidence level.
+	 */
+	public double getConfidence()
+	{
+		return confidence;
+	}
+
+	/**
+	 * Sets the confidence level of the interval. The default is 0.95.
+	 * @param confidence the confidence level. It must be between zero and one (exclusive).
+	 */
+	public void setConfidence(double confidence)
+	{
+		if(!(confidence > 0 && confidence < 1))
+			throw new IllegalArgumentException("Confidence must be between zero and one.");
+
+		this.confidence = confidence;
+	}
+
+	/**
+	 * Returns the quantile whose interval is estimated.
+	 * @return the quantile or {@link Double#NaN} if the interval of the mean is estimated.
+	 */
+	public double getQuantile()
+	{
+		return quantile;
+	}
+
+	/**
+	 * Sets the quantile of the best costs whose interval is estimated instead of the interval
+	 * of the mean.
+	 * @param quantile the quantile, for example 0.5 for the median. It must be between zero
+	 * and one (exclusive) or {@link Double#NaN} to estimate the mean.
+	 */
+	public void setQuantile(double quantile)
+	{
+		if(!Double.isNaN(quantile) && !(quantile > 0 && quantile < 1))
+			throw new IllegalArgumentException("Quantile must be between zero and one.");
+
+		this.quantile = quantile;
+	}
+
+	/**
+	 * Returns the half-width at which the interval is narrow enough.
+	 * @return the precision or zero if disabled.
+	 */
+	public double getPrecision()
+	{
+		return precision;
+	}
+
+	/**
+	 * Sets the half-width at which the interval is narrow enough. It is disabled by default.
+	 * @param precision the precision. Zero disables it and it cannot be negative.
+	 */
+	public void setPrecision(double precision)
+	{
+		if(!(precision >= 0))
+			throw new IllegalArgumentException("Precision cannot be negative.");
+
+		this.precision = precision;
+	}
+
+	/**
+	 * Returns the half-width, relative to the absolute value of the estimate, at which the
+	 * interval is narrow enough.
+	 * @return the relative precision or zero if disabled.
+	 */
+	public double getRelativePrecision()
+	{
+		return relativePrecision;
+	}
+
+	/**
+	 * Sets the half-width, relative to the absolute value of the estimate, at which the
+	 * interval is narrow enough. The default is 0.05.
+	 * @param relativePrecision the relative precision. Zero disables it and it cannot be
+	 * negative.
+	 */
+	public void setRelativePrecision(double relativePrecision)
+	{
+		if(!(relativePrecision >= 0))
+			throw new IllegalArgumentException("Relative precision cannot be negative.");
+
+		this.relativePrecision = relativePrecision;
+	}
+
+	/**
+	 * Returns the number of runs that finish before the interval is checked.
+	 * @return the minimum number of runs.
+	 */
+	public int getMinRuns()
+	{
+		return minRuns;
+	}
+
+	/**
+	 * Returns the number of runs after which no run is launched, whatever the interval.
+	 * @return the maximum number of runs.
+	 */
+	public int getMaxRuns()
+	{
+		return maxRuns;
+	}
+
+	/**
+	 * Sets the minimum and the maximum number of runs. The defaults are 5 and 100.
+	 * @param minRuns the number of runs that finish before the interval is checked. It must
+	 * be at least two.
+	 * @param maxRuns the number of runs after which no run is launched. It cannot be less
+	 * than the minimum.
+	 */
+	public void setRuns(int minRuns, int maxRuns)
+	{
+		if(minRuns < 2)
+			throw new IllegalArgumentException("Minimum number of runs must be at least two.");
+		if(maxRuns < minRuns)
+			throw new IllegalArgumentException("Maximum number of runs cannot be less than the minimum.");
+
+		this.minRuns = minRuns;
+		this.maxRuns = maxRuns;
+	}
+
+	/**
+	 * Returns the confidence interval of the runs of a batch that have finished.
+	 * @param batch the batch.
+	 * @return an array of length two with the lower and the upper bound of the interval. The
+	 * bounds are infinite if too few runs have finished to bound the interval.
+	 */
+	double[] getInterval(BatchResult batch)
+	{
+		RunStatistics statistics = batch.getStatistics();
+		int n = statistics.getCount();
+		if(Double.isNaN(quantile))
+		{
+			if(n < 2)
+				return new double[] {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+
+			double t = ICAUtils.studentTQuantile((1 + confidence) / 2, n - 1);
+			double halfWidth = t * Math.sqrt(statistics.getSampleVariance() / n);
+			return new double[] {statistics.getMean() - halfWidth, statistics.getMean() + halfWidth};
+		}
+
+		double[] costs = batch.getFinishedCosts();
+		Arrays.sort(costs);
+		double z = ICAUtils.normalQuantile((1 + confidence) / 2);
+		double spread = z * Math.sqrt(n * quantile * (1 - quantile));
+		int lower = (int)Math.floor(n * quantile - spread), upper = (int)Math.ceil(n * quantile + spread);
+		return new double[] {lower >= 1 ? costs[lower - 1] : Double.NEGATIVE_INFINITY,
+							 upper <= n ? costs[upper - 1] : Double.POSITIVE_INFINITY};
+	}
+
+	/**
+	 * Returns the estimate whose interval is computed: the mean or the quantile of the best
+	 * costs of the runs of a batch that have finished.
+	 * @param batch the batch.
+	 * @return the estimate or {@link Double#NaN} if no run has finished.
+	 */
+	double getEstimate(BatchResult batch)
+	{
+		if(Double.isNaN(quantile))
+			return batch.getStatistics().getMean();
+
+		double[] costs = batch.getFinishedCosts();
+		if(costs.length == 0)
+			return Double.NaN;
+
+		Arrays.sort(costs);
+		return costs[Math.min(costs.length - 1, (int)Math.ceil(quantile * costs.length) - 1)];
+	}
+
+	/**
+	 * Tells whether enough runs of a batch have finished for its interval to be narrow
+	 * enough.
+	 * @param batch the batch.
+	 * @return <code>true</code> if no more runs are needed.
+	 */
+	boolean isPrecise(BatchResult batch)
+	{
+		if(batch.getStatistics().getCount() < minRuns)
+			return false;
+
+		double[] interval = getInterval(batch);
+		double halfWidth = (interval[1] - interval[0]) / 2;
+		return (precision > 0 && halfWidth <= precision)
+				|| (relativePrecision > 0 && halfWidth <= relativePrecision * Math.abs(getEstimate(batch)));
+	}
+
+	@Override
+	public String toString()
+	{
+		return "confidence=" + confidence + ", quantile=" + quantile + ", precision=" + precision + ", relativePrecision="
+				+ relativePrecision + ", minRuns=" + minRuns + ", maxRuns=" + maxRuns;
+	}
+}
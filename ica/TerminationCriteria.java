@@ -0,0 +1,235 @@
+package ica;
+
+/**
+ * The conditions that stop a run of {@link ICAlgorithm} before it has run all of its decades:
+ * limits on the effort of the run, a target cost and the signs of convergence.
+ * A run stops at the end of the first decade in which any of the conditions holds. Because
+ * the conditions are checked between decades, a run can use more evaluations or time than its
+ * limit by at most one decade. The actual numbers are reported in {@link ICAResult}.
+ *
+ * <p>All conditions are disabled by default. The same object can be given to several runs;
+ * each run applies the limits to itself only. Example:
+ * <pre>
+ * TerminationCriteria criteria = new TerminationCriteria();
+ * criteria.setMaxEvaluations(100000);
+ * criteria.setTargetCost(1e-8);
+ * ConcurrentICAEvaluation.icaTestOnAFunction(pr, 50, true, criteria);
+ * </pre>
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class TerminationCriteria
+{
+	/**
+	 * The reasons for which a run of the algorithm can stop.
+	 */
+	public enum StopReason
+	{
+		/**
+		 * All decades of the run were executed.
+		 */
+		MAX_DECADES,
+		/**
+		 * The maximum number of function evaluations was reached.
+		 */
+		MAX_EVALUATIONS,
+		/**
+		 * The maximum wall-clock time was reached.
+		 */
+		MAX_TIME,
+		/**
+		 * A solution whose cost is not more than the target cost was found.
+		 */
+		TARGET_COST,
+		/**
+		 * Only one empire was left.
+		 */
+		ONE_EMPIRE,
+		/**
+		 * The best cost did not improve for the given number of decades.
+		 */
+		STAGNATION,
+		/**
+		 * The colonies have collapsed onto their imperialists.
+		 */
+		SPREAD_COLLAPSE,
+		/**
+		 * The batch of runs that the run belonged to was cancelled.
+		 */
+		CANCELLED
+	}
+
+	private long maxEvaluations = Long.MAX_VALUE;
+	private long maxTimeMillis = Long.MAX_VALUE;
+	private double targetCost = Double.NEGATIVE_INFINITY;
+	private int stagnationDecades = 0;
+	private double stagnationEpsilon = 0;
+	private boolean stopIfJustOneEmpire = false;
+	private double minSpread = 0;
+
+	/**
+	 * Creates criteria whose conditions are all disabled.
+	 */
+	public TerminationCriteria()
+	{
+	}
+
+	/**
+	 * Creates a copy of other criteria.
+	 * @param criteria the criteria that are copied.
+	 */
+	public TerminationCriteria(TerminationCriteria criteria)
+	{
+		this.maxEvaluations = criteria.maxEvaluations;
+		this.maxTimeMillis = criteria.maxTimeMillis;
+		this.targetCost = criteria.targetCost;
+		this.stagnationDecades = criteria.stagnationDecades;
+		this.stagnationEpsilon = criteria.stagnationEpsilon;
+		this.stopIfJustOneEmpire = criteria.stopIfJustOneEmpire;
+		this.minSpread = criteria.minSpread;
+	}
+
+	/**
+	 * Returns the maximum number of function evaluations of a run.
+	 * @return the maximum number of evaluations or {@link Long#MAX_VALUE} if unlimited.
+	 */
+	public long getMaxEvaluations()
+	{
+		return maxEvaluations;
+	}
+
+	/**
+	 * Sets the maximum number of function evaluations of a run. The evaluations of the initial
+	 * population are included.
+	 * @param maxEvaluations the maximum number of evaluations. It must be positive.
+	 */
+	public void setMaxEvaluations(long maxEvaluations)
+	{
+		if(maxEvaluations <= 0)
+			throw new IllegalArgumentException("Maximum number of evaluations must be a positive value.");
+		this.maxEvaluations = maxEvaluations;
+	}
+
+	/**
+	 * Returns the maximum wall-clock time of a run.
+	 * @return the maximum time in milliseconds or {@link Long#MAX_VALUE} if unlimited.
+	 */
+	public long getMaxTimeMillis()
+	{
+		return maxTimeMillis;
+	}
+
+	/**
+	 * Sets the maximum wall-clock time of a run. The time is measured from the start of the
+	 * first decade.
+	 * @param maxTimeMillis the maximum time in milliseconds. It must be positive.
+	 */
+	public void setMaxTimeMillis(long maxTimeMillis)
+	{
+		if(maxTimeMillis <= 0)
+			throw new IllegalArgumentException("Maximum time must be a positive value.");
+		this.maxTimeMillis = maxTimeMillis;
+	}
+
+	/**
+	 * Returns the cost at or below which a run stops.
+	 * @return the target cost or {@link Double#NEGATIVE_INFINITY} if disabled.
+	 */
+	public double getTargetCost()
+	{
+		return targetCost;
+	}
+
+	/**
+	 * Sets the cost at or below which a run stops.
+	 * @param targetCost the target cost.
+	 */
+	public void setTargetCost(double targetCost)
+	{
+		this.targetCost = targetCost;
+	}
+
+	/**
+	 * Returns the number of decades without improvement after which a run stops.
+	 * @return the number of decades or zero if disabled.
+	 */
+	public int getStagnationDecades()
+	{
+		return stagnationDecades;
+	}
+
+	/**
+	 * Returns the amount by which the best cost must decrease to count as an improvement.
+	 * @return the improvement threshold of the stagnation criterion.
+	 */
+	public double getStagnationEpsilon()
+	{
+		return stagnationEpsilon;
+	}
+
+	/**
+	 * Stops a run when its best cost has not decreased by more than <code>epsilon</code> for
+	 * a given number of decades.
+	 * @param decades the number of decades without improvement. Zero disables the criterion.
+	 * @param epsilon the amount by which the best cost must decrease to count as an
+	 * improvement. It cannot be negative.
+	 */
+	public void setStagnation(int decades, double epsilon)
+	{
+		if(decades < 0)
+			throw new IllegalArgumentException("Number of decades cannot be negative.");
+		if(epsilon < 0)
+			throw new IllegalArgumentException("Epsilon cannot be negative.");
+		this.stagnationDecades = decades;
+		this.stagnationEpsilon = epsilon;
+	}
+
+	/**
+	 * Tells whether a run stops when only one empire is left.
+	 * @return <code>true</code> if a run stops when only one empire is left.
+	 */
+	public boolean isStopIfJustOneEmpire()
+	{
+		return stopIfJustOneEmpire;
+	}
+
+	/**
+	 * Sets whether a run stops when only one empire is left.
+	 * @param stopIfJustOneEmpire <code>true</code> to stop when only one empire is left.
+	 */
+	public void setStopIfJustOneEmpire(boolean stopIfJustOneEmpire)
+	{
+		this.stopIfJustOneEmpire = stopIfJustOneEmpire;
+	}
+
+	/**
+	 * Returns the spread of the colonies below which a run stops.
+	 * @return the minimum spread or zero if disabled.
+	 */
+	public double getMinSpread()
+	{
+		return minSpread;
+	}
+
+	/**
+	 * Stops a run when its colonies have collapsed onto their imperialists. The spread is the
+	 * root mean square distance between the colonies and their imperialists, relative to the
+	 * length of the diagonal of the search space.
+	 * @param minSpread the spread below which a run stops. Zero disables the criterion.
+	 */
+	public void setMinSpread(double minSpread)
+	{
+		if(minSpread < 0)
+			throw new IllegalArgumentException("Minimum spread cannot be negative.");
+		this.minSpread = minSpread;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "maxEvaluations=" + maxEvaluations + ", maxTimeMillis=" + maxTimeMillis + ", targetCost=" + targetCost
+				+ ", stagnationDecades=" + stagnationDecades + ", stagnationEpsilon=" + stagnationEpsilon
+				+ ", stopIfJustOneEmpire=" + stopIfJustOneEmpire + ", minSpread=" + minSpread;
+	}
+}
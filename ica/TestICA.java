@@ -6,6 +6,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
 
 import com.mathworks.toolbox.javabuilder.MWException;
 
@@ -55,6 +57,11 @@ public class TestICA
 	
 	public static void main(String[] args) throws MWException, IOException
 	{
+		testImperialistGrid();
+		testEmpirePowers();
+		testSteadyStateAllocation();
+		testColonySpread();
+		
 		//Problem pr = new SphereProblem(5, -14, 14);
 		Problem pr = new PropellerProblem();
 		double[][] in = readPopFromFile("D:\\initpop.data");
@@ -88,6 +95,235 @@ public class TestICA
 //		}
 	}
 	
+	/**
+	 * Tests the groups of close empires that {@link ImperialistGrid} finds: close empires are
+	 * grouped through chains of neighbours, and the representative of a group is its best 
+	 * empire with ties broken in favour of the lower index.
+	 */
+	static void testImperialistGrid()
+	{
+		Problem pr = new SphereProblem(2, -10, 10);
+		ImperialistGrid grid = new ImperialistGrid(pr.getLowerBounds(), pr.getUpperBounds(), 1, 8);
+		
+		// Empires 0-1 and 1-2 are close but 0-2 are not; all three are united under the best one
+		Empire[] empires = {
+				newEmpire(pr, new double[] {0, 0}, 3), newEmpire(pr, new double[] {0.8, 0}, 2), 
+				newEmpire(pr, new double[] {1.6, 0}, 1), newEmpire(pr, new double[] {5, 5}, 0)};
+		int[] groups = grid.findGroups(empires, empires.length);
+		check(groups[0] == 2 && groups[1] == 2 && groups[2] == 2, "A chain of close empires is not one group.");
+		check(groups[3] == 3, "A distant empire is grouped with others.");
+		
+		// The same chain with equal costs is represented by its empire of lowest index
+		empires = new Empire[] {
+				newEmpire(pr, new double[] {1.6, 0}, 1), newEmpire(pr, new double[] {5, 5}, 1),
+				newEmpire(pr, new double[] {0.8, 0}, 1), newEmpire(pr, new double[] {0, 0}, 1)};
+		groups = grid.findGroups(empires, empires.length);
+		check(groups[0] == 0 && groups[2] == 0 && groups[3] == 0, "A tie is not broken in favour of the lower index.");
+		check(groups[1] == 1, "A distant empire is grouped with others.");
+		
+		// Empires further apart than the threshold stay apart
+		empires = new Empire[] {newEmpire(pr, new double[] {0, 0}, 1), newEmpire(pr, new double[] {0.8, 0.8}, 1)};
+		groups = grid.findGroups(empires, empires.length);
+		check(groups[0] == 0 && groups[1] == 1, "Empires that are not close are grouped.");
+		System.out.println("Imperialist grid test passed.");
+	}
+	
+	/**
+	 * Tests the weakest empire and the sampling of {@link EmpirePowers} against a scan of all
+	 * total costs after random updates and after empires are removed. The costs are small 
+	 * integers, so the sums are exact and ties are frequent.
+	 */
+	static void testEmpirePowers()
+	{
+		Problem pr = new SphereProblem(2, -10, 10);
+		Random random = new Random(7);
+		int numOfEmpires = 13;
+		Empire[] empires = new Empire[numOfEmpires];
+		for(int i = 0; i < numOfEmpires; i++)
+			empires[i] = newEmpire(pr, new double[2], random.nextInt(10));
+		EmpirePowers powers = new EmpirePowers(4);
+		powers.build(empires, numOfEmpires);
+		
+		while(numOfEmpires > 0)
+		{
+			for(int update = 0; update < 200; update++)
+			{
+				int index = random.nextInt(numOfEmpires);
+				empires[index] = newEmpire(pr, new double[2], random.nextInt(10) - 3);
+				powers.update(index, empires[index].getTotalCost());
+				checkPowers(powers, empires, numOfEmpires, random);
+			}
+			
+			// Remove an empire the way the algorithm does: compact the list and rebuild
+			int removed = random.nextInt(numOfEmpires);
+			System.arraycopy(empires, removed + 1, empires, removed, numOfEmpires - removed - 1);
+			numOfEmpires--;
+			powers.build(empires, numOfEmpires);
+			if(numOfEmpires > 0)
+				checkPowers(powers, empires, numOfEmpires, random);
+		}
+		System.out.println("Empire powers test passed.");
+	}
+	
+	private static void checkPowers(EmpirePowers powers, Empire[] empires, int numOfEmpires, Random random)
+	{
+		int weakest = 0;
+		for(int i = 1; i < numOfEmpires; i++)
+			if(empires[i].getTotalCost() > empires[weakest].getTotalCost())
+				weakest = i;
+		check(powers.getWeakest() == weakest, "The weakest empire is " + weakest + ", not " + powers.getWeakest());
+		
+		double maxCost = empires[weakest].getTotalCost(), totalPower = 0;
+		for(int i = 0; i < numOfEmpires; i++)
+			totalPower += maxCost - empires[i].getTotalCost();
+		
+		// Random numbers and the boundaries between the powers of the empires
+		double[] samples = new double[20 + numOfEmpires];
+		for(int k = 0; k < 20; k++)
+			samples[k] = random.nextDouble();
+		double boundary = 0;
+		for(int i = 0; i < numOfEmpires && totalPower > 0; i++)
+		{
+			samples[20 + i] = boundary / totalPower;
+			boundary += maxCost - empires[i].getTotalCost();
+		}
+		
+		for(double u : samples)
+		{
+			int expected = (int)(u * numOfEmpires);
+			if(totalPower > 0)
+			{
+				// The empire whose interval of cumulative power contains u * totalPower
+				double cumulative = 0;
+				for(expected = 0; expected < numOfEmpires - 1; expected++)
+				{
+					cumulative += maxCost - empires[expected].getTotalCost();
+					if(cumulative > u * totalPower)
+						break;
+				}
+			}
+			check(powers.sample(u) == expected, "Sampled empire " + powers.sample(u) + " instead of " + expected + " for " + u);
+		}
+	}
+	
+	/**
+	 * Tests that the decades of a run allocate nothing once the run has warmed up. The colony 
+	 * stores of the empires grow on demand while empires gain colonies, so the decades in 
+	 * which they grow are not counted; they must be rare.
+	 */
+	static void testSteadyStateAllocation()
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		Problem pr = new AckleyProblem(30, -32, 32);
+		for(boolean useExplorers : new boolean[] {false, true})
+		{
+			// Warm up so that the measured decades run compiled code
+			for(int run = 0; run < 20; run++)
+			{
+				ICAlgorithm ica = new ICAlgorithm(pr, pr.getName(), File.separator + pr.toString() + "-Warm-up", run);
+				for(int decade = 0; decade < 300; decade++)
+					ica.runDecade(decade, useExplorers);
+			}
+			
+			ICAlgorithm ica = new ICAlgorithm(pr, pr.getName(), File.separator + pr.toString() + "-Allocation", 100);
+			int decade = 0;
+			for(; decade < 20; decade++)
+				ica.runDecade(decade, useExplorers);
+			
+			long allocated = 0;
+			int measured = 0, settled = 0;
+			int previous = colonyCapacity(ica), capacity = previous;
+			for(; decade < 300; decade++, measured++)
+			{
+				long before = threads.getThreadAllocatedBytes(thread);
+				ica.runDecade(decade, useExplorers);
+				long bytes = threads.getThreadAllocatedBytes(thread) - before;
+				
+				// Buffers that are sized from the number of colonies grow one decade after the stores
+				int after = colonyCapacity(ica);
+				if(after == capacity && capacity == previous)
+				{
+					allocated += bytes;
+					settled++;
+				}
+				previous = capacity;
+				capacity = after;
+			}
+			
+			check(allocated == 0, "Decades of the run allocated " + allocated + " bytes (explorers: " + useExplorers + ").");
+			check(settled >= measured * 9 / 10, "Colony stores grew in " + (measured - settled) + " of " + measured + " decades.");
+		}
+		System.out.println("Steady-state allocation test passed.");
+	}
+	
+	/**
+	 * Tests that the spread that each empire keeps up to date matches the spread measured from
+	 * the positions of its colonies after each decade, with and without explorers.
+	 */
+	static void testColonySpread()
+	{
+		// Empires of the sphere converge and unite, so colonies also move between empires that way
+		for(Problem pr : new Problem[] {new AckleyProblem(30, -32, 32), new SphereProblem(5, -14, 14)})
+			for(boolean useExplorers : new boolean[] {false, true})
+			{
+				ICAlgorithm ica = new ICAlgorithm(pr, pr.getName(), File.separator + pr.toString() + "-Spread", 7);
+				checkSpreads(ica, -1);
+				for(int decade = 0; decade < 300; decade++)
+				{
+					ica.runDecade(decade, useExplorers);
+					checkSpreads(ica, decade);
+				}
+			}
+		System.out.println("Colony spread test passed.");
+	}
+	
+	private static void checkSpreads(ICAlgorithm ica, int decade)
+	{
+		for(int i = 0; i < ica.numOfEmpires; i++)
+		{
+			Empire empire = ica.empiresList[i];
+			ColonyStore colonies = empire.getColonies();
+			double[] imperialist = empire.getImperialistPosition();
+			double spread = 0;
+			for(int c = 0; c < colonies.size(); c++)
+				for(int j = 0; j < colonies.getDimension(); j++)
+				{
+					double d = imperialist[j] - colonies.get(c, j);
+					spread += d * d;
+				}
+			
+			check(Math.abs(empire.getColonySpread() - spread) <= 1e-9 * Math.max(spread, 1), 
+					"Spread of empire " + i + " is " + empire.getColonySpread() + " after decade " + decade 
+					+ " but its colonies spread " + spread + ".");
+		}
+	}
+	
+	private static int colonyCapacity(ICAlgorithm ica)
+	{
+		int capacity = 0;
+		for(int i = 0; i < ica.numOfEmpires; i++)
+			capacity += ica.empiresList[i].getColonies().getCapacity();
+		
+		return capacity;
+	}
+	
+	private static Empire newEmpire(Problem pr, double[] position, double cost)
+	{
+		// With a zeta of zero the total cost of the empire is the cost of its imperialist
+		Empire empire = new Empire(0, pr);
+		empire.setImperialistPosition(position, cost);
+		empire.setColoniesPosition(new double[][] {position}, new double[] {0});
+		empire.updateTotalCost();
+		return empire;
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+			throw new AssertionError(message);
+	}
+	
 	/**
 	 * This function receives a problem object and a PrintWriter object and 
 	 * runs both the original ICA and the modified ICA for the given problem
@@ -1,5 +1,4 @@
 package problem;
-import static java.lang.Math.pow;
 import static java.lang.Math.sqrt;
 import static java.lang.Math.cos;
 import static java.lang.Math.exp;
@@ -60,14 +59,25 @@ public final class AckleyProblem extends Problem {
 		if(x == null || x.length == 0)
 			throw new IllegalArgumentException("The input variable cannot be null");
 		
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
+	{
 		double result = 0;
-		int dim = x.length;
 		double sos = 0; // sum of squares
 		double soc = 0; // sum of cosines
 		
-		for(int i = 0; i < x.length; i++)
+		for(int i = offset; i < offset + dim; i++)
 		{
-			sos += pow(x[i], 2);
+			sos += x[i] * x[i];
 			soc += cos( 2 * PI * x[i]);
 		}
 		
@@ -79,6 +89,16 @@ public final class AckleyProblem extends Problem {
 		return result;
 	}
 	
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
+	
 	@Override
 	public String toString()
 	{
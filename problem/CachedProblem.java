@@ -0,0 +1,331 @@
+package problem;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A decorator that caches the function values of another {@link Problem}. The cache is meant
+ * to be shared between the concurrent runs of an optimization on the same problem, which often
+ * evaluate identical points, especially the ones that are clamped to the bounds of the problem.
+ *
+ * <p>Points are looked up by the exact bit pattern of their coordinates. The cache is a
+ * fixed-size hash table that is divided into stripes of {@link #WAYS} slots. A point can only
+ * be stored in the stripe that its hash selects, so the memory of the cache is bounded by its
+ * capacity. When a stripe is full, an entry is evicted with the CLOCK policy: entries that
+ * have been hit since the last eviction scan of their stripe get a second chance. The table is
+ * updated with compare-and-set operations only, so readers and writers never block. A
+ * concurrent update may occasionally lose an insertion, which only costs a future miss.
+ *
+ * <p>Example:
+ * <pre>
+ * CachedProblem pr = new CachedProblem(new PropellerProblem(), 1 &lt;&lt; 16);
+ * ConcurrentICAEvaluation.icaTestOnAFunction(pr, 50, true);
+ * System.out.println(pr.getHits() + " hits, " + pr.getMisses() + " misses");
+ * </pre>
+ * The decorated problem must be safe to use from several threads at the same time.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class CachedProblem extends Problem
+{
+	private static final long serialVersionUID = 3170533470818305124L;
+
+	/**
+	 * The number of slots of each stripe of the table.
+	 */
+	public static final int WAYS = 4;
+
+	private Problem problem;
+	private AtomicReferenceArray<Entry> table;
+	private int stripeMask;
+	private LongAdder hits = new LongAdder();
+	private LongAdder misses = new LongAdder();
+	private LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates a cache for a problem.
+	 * @param problem the problem whose values will be cached.
+	 * @param capacity the maximum number of points that the cache holds. It is rounded up to
+	 * a power of two that is not less than {@link #WAYS}.
+	 */
+	public CachedProblem(Problem problem, int capacity)
+	{
+		super(problem.getName(), problem.getLowerBounds(), problem.getUpperBounds());
+		if(capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be a positive value.");
+
+		int stripes = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS));
+		if(stripes * WAYS < capacity)
+			stripes <<= 1;
+
+		this.problem = problem;
+		this.stripeMask = stripes - 1;
+		this.table = new AtomicReferenceArray<Entry>(stripes * WAYS);
+	}
+
+	/**
+	 * Returns the problem that this object caches.
+	 * @return the decorated problem.
+	 */
+	public Problem getProblem()
+	{
+		return problem;
+	}
+
+	/**
+	 * Returns the maximum number of points that this cache holds.
+	 * @return the capacity of the cache.
+	 */
+	public int getCapacity()
+	{
+		return table.length();
+	}
+
+	/**
+	 * Returns the number of evaluations that were answered from the cache.
+	 * @return the number of cache hits.
+	 */
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of evaluations that were passed to the decorated problem.
+	 * @return the number of cache misses.
+	 */
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of entries that were evicted to make room for new ones.
+	 * @return the number of evictions.
+	 */
+	public long getEvictions()
+	{
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the ratio of the evaluations that were answered from the cache.
+	 * @return the hit rate of the cache or zero if nothing is evaluated yet.
+	 */
+	public double getHitRate()
+	{
+		long h = getHits(), total = h + getMisses();
+		return total == 0 ? 0 : h / (double)total;
+	}
+
+	/**
+	 * Removes all entries of the cache and resets its counters.
+	 */
+	public void clear()
+	{
+		for(int i = 0; i < table.length(); i++)
+			table.set(i, null);
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	@Override
+	public double valueAt(double[] input)
+	{
+		if(input == null)
+			throw new IllegalArgumentException("The input variable cannot be null");
+		if(input.length != getDimension())
+			throw new IllegalArgumentException("The input does not match the problem dimension");
+
+		long hash = hash(input, 0, input.length);
+		Entry entry = find(input, 0, hash);
+		if(entry != null)
+		{
+			hits.increment();
+			return entry.value;
+		}
+
+		misses.increment();
+		double value = problem.valueAt(input);
+		insert(new Entry(input.clone(), hash, value));
+		return value;
+	}
+
+	/**
+	 * Answers the points of the batch that are in the cache and evaluates the remaining ones
+	 * with one batch call to the decorated problem.
+	 */
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		int[] missed = null;
+		long[] missedHashes = null;
+		int numOfMissed = 0;
+		for(int i = fromPoint; i < toPoint; i++)
+		{
+			long hash = hash(points, i * dim, dim);
+			Entry entry = find(points, i * dim, hash);
+			if(entry != null)
+			{
+				values[i] = entry.value;
+				continue;
+			}
+
+			if(missed == null)
+			{
+				missed = new int[toPoint - i];
+				missedHashes = new long[toPoint - i];
+			}
+			missed[numOfMissed] = i;
+			missedHashes[numOfMissed++] = hash;
+		}
+		hits.add(toPoint - fromPoint - numOfMissed);
+		if(numOfMissed == 0)
+			return;
+
+		misses.add(numOfMissed);
+		double[] missedPoints = new double[numOfMissed * dim];
+		double[] missedValues = new double[numOfMissed];
+		for(int k = 0; k < numOfMissed; k++)
+			System.arraycopy(points, missed[k] * dim, missedPoints, k * dim, dim);
+		problem.valuesAt(missedPoints, numOfMissed, missedValues);
+
+		for(int k = 0; k < numOfMissed; k++)
+		{
+			values[missed[k]] = missedValues[k];
+			insert(new Entry(Arrays.copyOfRange(missedPoints, k * dim, (k + 1) * dim), missedHashes[k], missedValues[k]));
+		}
+	}
+
+	private Entry find(double[] points, int offset, long hash)
+	{
+		int base = stripeOf(hash);
+		for(int w = 0; w < WAYS; w++)
+		{
+			Entry entry = table.get(base + w);
+			if(entry != null && entry.hash == hash && entry.matches(points, offset))
+			{
+				if(!entry.referenced)
+					entry.referenced = true;
+				return entry;
+			}
+		}
+
+		return null;
+	}
+
+	private void insert(Entry entry)
+	{
+		int base = stripeOf(entry.hash);
+		for(int w = 0; w < WAYS; w++)
+		{
+			if(table.get(base + w) == null && table.compareAndSet(base + w, null, entry))
+				return;
+		}
+
+		// The stripe is full. Run the clock from a position that depends on the hash so that
+		// evictions are spread over the slots of the stripe.
+		int start = (int)(entry.hash >>> 32) & (WAYS - 1);
+		for(int k = 0; k < WAYS; k++)
+		{
+			int slot = base + ((start + k) & (WAYS - 1));
+			Entry victim = table.get(slot);
+			if(victim == null)
+			{
+				if(table.compareAndSet(slot, null, entry))
+					return;
+			}
+			else if(victim.referenced)
+				victim.referenced = false;
+			else if(table.compareAndSet(slot, victim, entry))
+			{
+				evictions.increment();
+				return;
+			}
+		}
+
+		// All entries had a second chance; replace the first one.
+		int slot = base + start;
+		Entry victim = table.get(slot);
+		if(table.compareAndSet(slot, victim, entry) && victim != null)
+			evictions.increment();
+	}
+
+	private int stripeOf(long hash)
+	{
+		return ((int)hash & stripeMask) * WAYS;
+	}
+
+	/**
+	 * Computes a hash of the bit pattern of a point.
+	 */
+	private static long hash(double[] points, int offset, int dim)
+	{
+		long h = 0x9E3779B97F4A7C15L;
+		for(int j = offset; j < offset + dim; j++)
+		{
+			h ^= Double.doubleToLongBits(points[j]);
+			h *= 0xBF58476D1CE4E5B9L;
+			h ^= (h >>> 31);
+		}
+
+		h ^= (h >>> 33);
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= (h >>> 33);
+		return h;
+	}
+
+	@Override
+	public boolean isSeparable()
+	{
+		return problem.isSeparable();
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return problem.termAt(index, x);
+	}
+
+	@Override
+	public String toString()
+	{
+		return problem.toString();
+	}
+
+	/**
+	 * An immutable point and its value. Only the reference bit of the clock policy changes.
+	 */
+	private static final class Entry implements Serializable
+	{
+		private static final long serialVersionUID = -2883451870232127312L;
+
+		final double[] point;
+		final long hash;
+		final double value;
+		volatile boolean referenced;
+
+		Entry(double[] point, long hash, double value)
+		{
+			this.point = point;
+			this.hash = hash;
+			this.value = value;
+		}
+
+		boolean matches(double[] points, int offset)
+		{
+			for(int j = 0; j < point.length; j++)
+				if(Double.doubleToLongBits(point[j]) != Double.doubleToLongBits(points[offset + j]))
+					return false;
+
+			return true;
+		}
+	}
+}
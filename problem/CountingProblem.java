@@ -0,0 +1,109 @@
+package problem;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A decorator that counts the function evaluations of another {@link Problem}. Every point of
+ * a batch and every call to {@link #valueAfterChange(double, double[], int, double)} count as
+ * one evaluation. The counter can be updated from several threads at the same time.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class CountingProblem extends Problem
+{
+	private static final long serialVersionUID = 8161502837785127610L;
+
+	private Problem problem;
+	private LongAdder evaluations = new LongAdder();
+
+	/**
+	 * Creates a counting decorator for a problem.
+	 * @param problem the problem whose evaluations will be counted.
+	 */
+	public CountingProblem(Problem problem)
+	{
+		super(problem.getName(), problem.getLowerBounds(), problem.getUpperBounds());
+		this.problem = problem;
+	}
+
+	/**
+	 * Returns the problem whose evaluations this object counts.
+	 * @return the decorated problem.
+	 */
+	public Problem getProblem()
+	{
+		return problem;
+	}
+
+	/**
+	 * Returns the number of evaluations since this object was created or last reset.
+	 * @return the number of evaluations.
+	 */
+	public long getEvaluations()
+	{
+		return evaluations.sum();
+	}
+
+	/**
+	 * Adds evaluations that were made on behalf of the user of this object by another
+	 * problem, for example the evaluations of a population that is shared by several runs.
+	 * @param evaluations the number of evaluations. It cannot be negative.
+	 */
+	public void add(long evaluations)
+	{
+		if(evaluations < 0)
+			throw new IllegalArgumentException("Number of evaluations cannot be negative.");
+
+		this.evaluations.add(evaluations);
+	}
+
+	/**
+	 * Sets the number of evaluations to zero.
+	 */
+	public void reset()
+	{
+		evaluations.reset();
+	}
+
+	@Override
+	public double valueAt(double[] input)
+	{
+		evaluations.increment();
+		return problem.valueAt(input);
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		evaluations.add(toPoint - fromPoint);
+		problem.valuesAt(points, fromPoint, toPoint, values);
+	}
+
+	@Override
+	public boolean isSeparable()
+	{
+		return problem.isSeparable();
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return problem.termAt(index, x);
+	}
+
+	@Override
+	public double valueAfterChange(double value, double[] point, int index, double x)
+	{
+		evaluations.increment();
+		return problem.valueAfterChange(value, point, index, x);
+	}
+
+	@Override
+	public String toString()
+	{
+		return problem.toString();
+	}
+}
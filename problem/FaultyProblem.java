@@ -0,0 +1,77 @@
+package problem;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A stand-in for an objective that runs in the worker processes of {@link ProcessPoolProblem},
+ * used to test how the pool handles failures without MATLAB. It computes the sphere function,
+ * except at points that are chosen to fail:
+ * <ul>
+ * <li>if the first coordinate is at the upper bound, the worker process halts;</li>
+ * <li>if the first coordinate is at the lower bound, the evaluation never returns;</li>
+ * <li>if the second coordinate is at the upper bound, the objective throws an exception.</li>
+ * </ul>
+ * It halts the process that evaluates it, so it must only be evaluated in a worker process.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+class FaultyProblem extends Problem
+{
+	private static final long serialVersionUID = 2760481573019357044L;
+
+	FaultyProblem(int dimension, double lowerBound, double upperBound)
+	{
+		super("Faulty sphere", dimension, lowerBound, upperBound);
+		if(dimension < 2)
+			throw new IllegalArgumentException("Dimension must be at least two.");
+	}
+
+	/**
+	 * Returns a factory of the problem that fails to create it while a given file exists, so
+	 * that a worker process cannot be started or restarted.
+	 * @param dimension the dimension of the problem.
+	 * @param lowerBound the lower bound of each coordinate.
+	 * @param upperBound the upper bound of each coordinate.
+	 * @param failure the file whose existence makes the factory fail.
+	 * @return the factory.
+	 */
+	static ProblemFactory factory(int dimension, double lowerBound, double upperBound, File failure)
+	{
+		return () -> {
+			if(failure.exists())
+				throw new IOException("The problem cannot be created while " + failure + " exists.");
+			return new FaultyProblem(dimension, lowerBound, upperBound);
+		};
+	}
+
+	@Override
+	public double valueAt(double[] input)
+	{
+		if(input == null)
+			throw new IllegalArgumentException("The input variable cannot be null");
+		if(input.length != getDimension())
+			throw new IllegalArgumentException("The input does not match the problem dimension");
+
+		if(input[0] == getUpperBounds()[0])
+			Runtime.getRuntime().halt(3);
+		if(input[0] == getLowerBounds()[0])
+		{
+			while(true)
+			{
+				try
+				{
+					Thread.sleep(Long.MAX_VALUE);
+				} catch(InterruptedException e)
+				{
+					// Hangs until the process is killed
+				}
+			}
+		}
+		if(input[1] == getUpperBounds()[1])
+			throw new IllegalStateException("The objective cannot be evaluated at this point.");
+
+		return SphereProblem.functionValueAt(input);
+	}
+}
@@ -1,5 +1,4 @@
 package problem;
-import static java.lang.Math.pow;
 import static java.lang.Math.sqrt;
 import static java.lang.Math.cos;
 
@@ -51,21 +50,51 @@ public final class GriewankProblem extends Problem
 	}
 	
 	public static double functionValueAt(double[] x)
+	{
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
 	{
 		double result = 0;
 		double sos = 0; // sum of squares
 		double poc = 1; // product of cosines
 		
-		for(int i = 0; i < x.length; i++)
+		for(int i = 0; i < dim; i++)
 		{
-			sos += pow(x[i] - 100, 2);
-			poc *= cos( (x[i] - 100) / sqrt(i + 1) );
+			double d = x[offset + i] - 100;
+			sos += d * d;
+			poc *= cos( d / sqrt(i + 1) );
 		}
 		
 		result = (1 / 4000.0) * sos - poc + 1;
 		return result;
 	}
 	
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+		{
+			int offset = i * dim;
+			for(int j = 0; j < dim; j++)
+				if(!checkLowerBound(points[offset + j], j) || !checkUpperBound(points[offset + j], j))
+					throw(new IllegalArgumentException("The input does not reside within the problem space"));
+			
+			values[i] = functionValueAt(points, offset, dim);
+		}
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -0,0 +1,174 @@
+package problem;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A decorator that evaluates batches of points of another {@link Problem} in parallel. A
+ * batch that is passed to {@link #valuesAt(double[], int, int, double[])} is split into halves
+ * recursively and the halves are evaluated on a {@link ForkJoinPool} until each part has no
+ * more than a given number of points. Batches that are not larger than that cutoff are
+ * evaluated serially on the calling thread.
+ *
+ * <p>Because the value at each point is computed independently and stored at its own index,
+ * the result of a batch is identical to the result of the serial evaluation. The decorated
+ * problem must be safe to use from several threads at the same time.
+ *
+ * <p>To evaluate the colonies of a single ICA run in parallel, the decorated problem is simply
+ * given to the algorithm instead of the original one:
+ * <pre>
+ * new ICAlgorithm(new ParallelProblem(new SphereProblem(1000, -100, 100), 8), path, name);
+ * </pre>
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class ParallelProblem extends Problem
+{
+	private static final long serialVersionUID = -2418003587561286329L;
+
+	/**
+	 * The default number of points below which a batch is evaluated serially.
+	 */
+	public static final int DEFAULT_CUTOFF = 16;
+
+	private Problem problem;
+	private int cutoff;
+	private transient ForkJoinPool pool;
+
+	/**
+	 * Creates a parallel decorator that uses the common pool of {@link ForkJoinPool} and the
+	 * default cutoff.
+	 * @param problem the problem that will be evaluated in parallel.
+	 */
+	public ParallelProblem(Problem problem)
+	{
+		this(problem, DEFAULT_CUTOFF);
+	}
+
+	/**
+	 * Creates a parallel decorator that uses the common pool of {@link ForkJoinPool}.
+	 * @param problem the problem that will be evaluated in parallel.
+	 * @param cutoff the number of points below which a batch is evaluated serially.
+	 */
+	public ParallelProblem(Problem problem, int cutoff)
+	{
+		this(problem, cutoff, null);
+	}
+
+	/**
+	 * Creates a parallel decorator.
+	 * @param problem the problem that will be evaluated in parallel.
+	 * @param cutoff the number of points below which a batch is evaluated serially.
+	 * It must be positive.
+	 * @param pool the pool that batches will be evaluated on. If <code>null</code>, the common
+	 * pool of {@link ForkJoinPool} will be used.
+	 */
+	public ParallelProblem(Problem problem, int cutoff, ForkJoinPool pool)
+	{
+		super(problem.getName(), problem.getLowerBounds(), problem.getUpperBounds());
+		if(cutoff <= 0)
+			throw new IllegalArgumentException("Cutoff must be a positive value.");
+
+		this.problem = problem;
+		this.cutoff = cutoff;
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the problem that this object evaluates in parallel.
+	 * @return the decorated problem.
+	 */
+	public Problem getProblem()
+	{
+		return problem;
+	}
+
+	/**
+	 * Returns the number of points below which a batch is evaluated serially.
+	 * @return the cutoff of this object.
+	 */
+	public int getCutoff()
+	{
+		return cutoff;
+	}
+
+	@Override
+	public double valueAt(double[] input)
+	{
+		return problem.valueAt(input);
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		if(toPoint - fromPoint <= cutoff)
+			problem.valuesAt(points, fromPoint, toPoint, values);
+		else
+			getPool().invoke(new EvaluationTask(points, fromPoint, toPoint, values));
+	}
+
+	private ForkJoinPool getPool()
+	{
+		if(pool == null)
+			pool = ForkJoinPool.commonPool();
+
+		return pool;
+	}
+
+	@Override
+	public boolean isSeparable()
+	{
+		return problem.isSeparable();
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return problem.termAt(index, x);
+	}
+
+	@Override
+	public String toString()
+	{
+		return problem.toString();
+	}
+
+	/**
+	 * Evaluates a range of points of a batch and splits it further if it is larger than the
+	 * cutoff.
+	 */
+	private class EvaluationTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 4415361766374498421L;
+
+		private final double[] points;
+		private final int fromPoint;
+		private final int toPoint;
+		private final double[] values;
+
+		EvaluationTask(double[] points, int fromPoint, int toPoint, double[] values)
+		{
+			this.points = points;
+			this.fromPoint = fromPoint;
+			this.toPoint = toPoint;
+			this.values = values;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(toPoint - fromPoint <= cutoff)
+			{
+				problem.valuesAt(points, fromPoint, toPoint, values);
+				return;
+			}
+
+			int middle = (fromPoint + toPoint) >>> 1;
+			invokeAll(new EvaluationTask(points, fromPoint, middle, values),
+					  new EvaluationTask(points, middle, toPoint, values));
+		}
+	}
+}
@@ -0,0 +1,369 @@
+package problem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * A decorator that keeps the function values of another {@link Problem} in a file, so that a
+ * point that has been evaluated once is never evaluated again, not even by a later process.
+ * It is meant for expensive objectives such as {@link PropellerProblem}.
+ *
+ * <p>The file is a fixed-size header followed by binary records. Each record holds the
+ * coordinates of a point, its value and a CRC32 checksum of both. When the store is opened,
+ * the existing records are read through a memory-mapped view of the file into an in-memory
+ * index; no text is parsed. New values are appended to the end of the file. Appends are
+ * serialized by an exclusive {@link FileLock}, so several processes on one host can share the
+ * same file. Before appending, a process also indexes the records that the other processes
+ * have appended since it last looked.
+ *
+ * <p>A process that dies while appending can leave at most a partial record at the end of
+ * the file. Partial records fail their checksum; they are ignored when the file is read and
+ * are cut off by the next append, so the store is never corrupted.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class PersistentProblem extends Problem implements Closeable
+{
+	private static final long serialVersionUID = -6012880416627434915L;
+
+	private static final long MAGIC = 0x4943414556414C31L; // "ICAEVAL1"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	private Problem problem;
+	private File file;
+	private transient FileChannel channel;
+	private transient ConcurrentHashMap<Key, Double> index;
+	private transient int recordSize;
+
+	/**
+	 * The end of the last record of the file that is read into the index.
+	 */
+	private transient long indexedEnd;
+
+	/**
+	 * Opens or creates a store for a problem.
+	 * @param problem the problem whose values will be stored.
+	 * @param file the file of the store. If the file exists, its values are loaded and it
+	 * must have been created for a problem of the same dimension.
+	 * @throws IOException if the file cannot be opened or is not a valid store.
+	 */
+	public PersistentProblem(Problem problem, File file) throws IOException
+	{
+		super(problem.getName(), problem.getLowerBounds(), problem.getUpperBounds());
+		if(file == null)
+			throw new IllegalArgumentException("File cannot be null.");
+
+		this.problem = problem;
+		this.file = file;
+		this.recordSize = (problem.getDimension() + 2) * Double.BYTES;
+		this.index = new ConcurrentHashMap<Key, Double>();
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			// The records are read under the lock so that no other process truncates a partial
+			// record while it is mapped
+			FileLock lock = channel.lock();
+			try
+			{
+				if(channel.size() < HEADER_SIZE)
+					writeHeader();
+				else
+					checkHeader();
+				indexedEnd = HEADER_SIZE;
+				load(validEnd(channel.size()));
+			} finally
+			{
+				lock.release();
+			}
+		} catch(IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the problem whose values this object stores.
+	 * @return the decorated problem.
+	 */
+	public Problem getProblem()
+	{
+		return problem;
+	}
+
+	/**
+	 * Returns the file of this store.
+	 * @return the file of this store.
+	 */
+	public File getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Returns the number of points whose values are known to this object.
+	 * @return the number of stored points.
+	 */
+	public int size()
+	{
+		return index.size();
+	}
+
+	@Override
+	public double valueAt(double[] input)
+	{
+		if(input == null)
+			throw new IllegalArgumentException("The input variable cannot be null");
+		if(input.length != getDimension())
+			throw new IllegalArgumentException("The input does not match the problem dimension");
+
+		Key key = new Key(input.clone());
+		Double value = index.get(key);
+		if(value != null)
+			return value;
+
+		double v = problem.valueAt(input);
+		append(new Key[] {key}, new double[] {v}, 1);
+		return v;
+	}
+
+	/**
+	 * Answers the points of the batch that are in the store, evaluates the remaining ones
+	 * with one batch call to the decorated problem and appends them to the file under one lock.
+	 */
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		int[] missed = new int[toPoint - fromPoint];
+		Key[] missedKeys = new Key[toPoint - fromPoint];
+		int numOfMissed = 0;
+		for(int i = fromPoint; i < toPoint; i++)
+		{
+			Key key = new Key(Arrays.copyOfRange(points, i * dim, (i + 1) * dim));
+			Double value = index.get(key);
+			if(value != null)
+				values[i] = value;
+			else
+			{
+				missed[numOfMissed] = i;
+				missedKeys[numOfMissed++] = key;
+			}
+		}
+		if(numOfMissed == 0)
+			return;
+
+		double[] missedPoints = new double[numOfMissed * dim];
+		double[] missedValues = new double[numOfMissed];
+		for(int k = 0; k < numOfMissed; k++)
+			System.arraycopy(missedKeys[k].point, 0, missedPoints, k * dim, dim);
+		problem.valuesAt(missedPoints, numOfMissed, missedValues);
+
+		for(int k = 0; k < numOfMissed; k++)
+			values[missed[k]] = missedValues[k];
+		append(missedKeys, missedValues, numOfMissed);
+	}
+
+	/**
+	 * Forces the appended records to the storage device.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public synchronized void flush() throws IOException
+	{
+		channel.force(true);
+	}
+
+	/**
+	 * Closes the file of this store. Values that are already appended stay in the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if(channel.isOpen())
+		{
+			channel.force(true);
+			channel.close();
+		}
+	}
+
+	@Override
+	public boolean isSeparable()
+	{
+		return problem.isSeparable();
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return problem.termAt(index, x);
+	}
+
+	@Override
+	public String toString()
+	{
+		return problem.toString();
+	}
+
+	/**
+	 * Appends the given values to the file. The method is synchronized because a
+	 * {@link FileLock} is held on behalf of the whole process and cannot be acquired twice.
+	 */
+	private synchronized void append(Key[] keys, double[] values, int count)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(count * recordSize).order(ByteOrder.LITTLE_ENDIAN);
+		CRC32 crc = new CRC32();
+		for(int k = 0; k < count; k++)
+		{
+			int start = buffer.position();
+			for(double x : keys[k].point)
+				buffer.putDouble(x);
+			buffer.putDouble(values[k]);
+			crc.reset();
+			crc.update(buffer.array(), start, recordSize - Long.BYTES);
+			buffer.putLong(crc.getValue());
+		}
+		buffer.flip();
+
+		try
+		{
+			FileLock lock = channel.lock();
+			try
+			{
+				long end = validEnd(channel.size());
+				if(end < channel.size())
+					channel.truncate(end);
+				load(end);
+
+				long position = end;
+				while(buffer.hasRemaining())
+					position += channel.write(buffer, position);
+				indexedEnd = position;
+			} finally
+			{
+				lock.release();
+			}
+		} catch(IOException e)
+		{
+			throw new UncheckedIOException("Cannot append to the evaluation store " + file, e);
+		}
+
+		for(int k = 0; k < count; k++)
+			index.put(keys[k], values[k]);
+	}
+
+	/**
+	 * Reads the records between the indexed end and the given end of the file into the index
+	 * through a memory-mapped view of the file. Reading stops at the first invalid record.
+	 */
+	private void load(long end) throws IOException
+	{
+		long records = (end - indexedEnd) / recordSize;
+		if(records <= 0)
+			return;
+
+		MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, indexedEnd, records * recordSize);
+		map.order(ByteOrder.LITTLE_ENDIAN);
+		byte[] record = new byte[recordSize];
+		CRC32 crc = new CRC32();
+		int dim = getDimension();
+		for(long r = 0; r < records; r++)
+		{
+			map.get(record);
+			crc.reset();
+			crc.update(record, 0, recordSize - Long.BYTES);
+			ByteBuffer b = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+			if(b.getLong(recordSize - Long.BYTES) != crc.getValue())
+				break;
+
+			double[] point = new double[dim];
+			for(int j = 0; j < dim; j++)
+				point[j] = b.getDouble(j * Double.BYTES);
+			index.put(new Key(point), b.getDouble(dim * Double.BYTES));
+			indexedEnd += recordSize;
+		}
+	}
+
+	/**
+	 * Returns the end of the last complete and valid record of a file of the given size.
+	 */
+	private long validEnd(long size) throws IOException
+	{
+		long end = HEADER_SIZE + ((size - HEADER_SIZE) / recordSize) * recordSize;
+		ByteBuffer record = ByteBuffer.allocate(recordSize).order(ByteOrder.LITTLE_ENDIAN);
+		CRC32 crc = new CRC32();
+		while(end > indexedEnd)
+		{
+			record.clear();
+			channel.read(record, end - recordSize);
+			crc.reset();
+			crc.update(record.array(), 0, recordSize - Long.BYTES);
+			if(record.getLong(recordSize - Long.BYTES) == crc.getValue())
+				break;
+			end -= recordSize;
+		}
+
+		return end;
+	}
+
+	private void writeHeader() throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putLong(MAGIC).putInt(VERSION).putInt(getDimension()).flip();
+		channel.truncate(0);
+		while(header.hasRemaining())
+			channel.write(header, header.position());
+		channel.force(true);
+	}
+
+	private void checkHeader() throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		channel.read(header, 0);
+		if(header.getLong(0) != MAGIC || header.getInt(8) != VERSION)
+			throw new IOException(file + " is not an evaluation store");
+		if(header.getInt(12) != getDimension())
+			throw new IOException(file + " stores points of dimension " + header.getInt(12) + ", not " + getDimension());
+	}
+
+	/**
+	 * A point that is compared by the bit pattern of its coordinates.
+	 */
+	private static final class Key
+	{
+		final double[] point;
+		final int hash;
+
+		Key(double[] point)
+		{
+			this.point = point;
+			this.hash = Arrays.hashCode(point);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			return obj instanceof Key && Arrays.equals(point, ((Key)obj).point);
+		}
+	}
+}
@@ -18,6 +18,13 @@ public abstract class Problem implements Serializable
 	private double uniformLowerBound;
 	private double uniformUpperBound;
 	protected String name = "";
+	
+	/**
+	 * The scratch point of each thread for the default implementation of 
+	 * {@link #valuesAt(double[], int, int, double[])}. It is created lazily because it is not
+	 * serialized.
+	 */
+	private transient ThreadLocal<double[]> pointBuffer;
 
 	public Problem()
 	{
@@ -209,4 +216,114 @@ public abstract class Problem implements Serializable
 	 * @return function value at a given point in space. 
 	 */
 	public abstract double valueAt(double[] input);
+
+	/**
+	 * Computes the function values at a batch of points. The points are given in a flat
+	 * buffer in row-major order, i.e. coordinate <code>j</code> of point <code>i</code> is
+	 * <code>points[i * getDimension() + j]</code>. This method is equivalent to 
+	 * <code>valuesAt(points, 0, numberOfPoints, values)</code>.
+	 * @param points a buffer that contains the points. Its length must not be less than
+	 * <code>numberOfPoints * getDimension()</code>.
+	 * @param numberOfPoints the number of points in the buffer that will be evaluated.
+	 * @param values an array that the function value at point <code>i</code> will be stored
+	 * in its element <code>i</code>. Its length must not be less than <code>numberOfPoints</code>.
+	 */
+	public void valuesAt(double[] points, int numberOfPoints, double[] values)
+	{
+		valuesAt(points, 0, numberOfPoints, values);
+	}
+
+	/**
+	 * Computes the function values at a range of points of a batch. The points are given in 
+	 * a flat buffer in row-major order, i.e. coordinate <code>j</code> of point <code>i</code> 
+	 * is <code>points[i * getDimension() + j]</code>. The default implementation copies each 
+	 * point into a scratch array of the calling thread and calls {@link #valueAt(double[])} on it. Derived classes 
+	 * can override this method with a specialized loop that works directly on the buffer or 
+	 * amortizes the overhead of each call over the whole batch.
+	 * @param points a buffer that contains the points. Its length must not be less than
+	 * <code>toPoint * getDimension()</code>.
+	 * @param fromPoint the index of the first point that will be evaluated (inclusive).
+	 * @param toPoint the index of the last point that will be evaluated (exclusive).
+	 * @param values an array that the function value at point <code>i</code> will be stored
+	 * in its element <code>i</code>. Its length must not be less than <code>toPoint</code>.
+	 */
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		ThreadLocal<double[]> buffer = pointBuffer;
+		if(buffer == null)
+			pointBuffer = buffer = ThreadLocal.withInitial(() -> new double[dim]);
+		double[] point = buffer.get();
+		for(int i = fromPoint; i < toPoint; i++)
+		{
+			System.arraycopy(points, i * dim, point, 0, dim);
+			values[i] = valueAt(point);
+		}
+	}
+
+	/**
+	 * Tells whether this problem is additively separable, i.e. whether its value is a constant
+	 * plus a sum of terms that each depend on a single coordinate of the point. The value of a
+	 * separable problem at a point that differs from a known point in one coordinate can be
+	 * computed in constant time with {@link #valueAfterChange(double, double[], int, double)}.
+	 * The default implementation returns <code>false</code>.
+	 * @return <code>true</code> if {@link #termAt(int, double)} is supported by this problem.
+	 */
+	public boolean isSeparable()
+	{
+		return false;
+	}
+
+	/**
+	 * Computes the term of the function value that coordinate <code>index</code> contributes
+	 * when it has the value <code>x</code>. Only separable problems support this method.
+	 * @param index the index of the coordinate.
+	 * @param x the value of the coordinate.
+	 * @return the contribution of the coordinate to the function value.
+	 * @throws UnsupportedOperationException if this problem is not separable.
+	 * @see #isSeparable()
+	 */
+	public double termAt(int index, double x)
+	{
+		throw new UnsupportedOperationException(getName() + " is not a separable problem");
+	}
+
+	/**
+	 * Computes the function value at a point that differs from a point with a known value in
+	 * one coordinate only. Only separable problems support this method. The result may differ
+	 * from {@link #valueAt(double[])} by rounding errors.
+	 * @param value the function value at <code>point</code>.
+	 * @param point the point whose value is known. It is not modified.
+	 * @param index the index of the coordinate that changes.
+	 * @param x the new value of the coordinate.
+	 * @return the function value at <code>point</code> with coordinate <code>index</code>
+	 * replaced by <code>x</code>.
+	 * @throws UnsupportedOperationException if this problem is not separable.
+	 */
+	public double valueAfterChange(double value, double[] point, int index, double x)
+	{
+		return value - termAt(index, point[index]) + termAt(index, x);
+	}
+
+	/**
+	 * Checks the arguments of {@link #valuesAt(double[], int, int, double[])} and throws an
+	 * {@link IllegalArgumentException} if they do not match this problem.
+	 * @param points a buffer that contains the points.
+	 * @param fromPoint the index of the first point that will be evaluated (inclusive).
+	 * @param toPoint the index of the last point that will be evaluated (exclusive).
+	 * @param values the array that will receive the function values.
+	 */
+	protected void checkBatch(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		if(points == null || values == null)
+			throw new IllegalArgumentException("The input variable cannot be null");
+		if(fromPoint < 0 || toPoint < fromPoint)
+			throw new IllegalArgumentException("Invalid range of points: [" + fromPoint + ", " + toPoint + ")");
+		if(points.length < toPoint * getDimension())
+			throw new IllegalArgumentException("The input buffer does not contain " + toPoint + " points of dimension " + getDimension());
+		if(values.length < toPoint)
+			throw new IllegalArgumentException("The output array cannot hold " + toPoint + " values");
+	}
 }
\ No newline at end of file
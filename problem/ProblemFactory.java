@@ -0,0 +1,23 @@
+package problem;
+
+import java.io.Serializable;
+
+/**
+ * Creates instances of a {@link Problem}. A factory is used where a problem cannot be passed
+ * around as an object, for example when it is hosted in another process by
+ * {@link ProcessPoolProblem}. Such a factory is serialized and sent to the other process, so
+ * its class must be available there as well. A lambda or method reference whose target type is
+ * this interface is serializable, e.g. <code>PropellerProblem::new</code>.
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public interface ProblemFactory extends Serializable
+{
+	/**
+	 * Creates a new instance of the problem.
+	 * @return a new problem instance.
+	 * @throws Exception if the problem cannot be created.
+	 */
+	Problem create() throws Exception;
+}
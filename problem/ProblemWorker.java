@@ -0,0 +1,94 @@
+package problem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * The entry point of the worker processes of {@link ProcessPoolProblem}. A worker reads a
+ * serialized {@link ProblemFactory} from its standard input, creates the problem with it and
+ * then evaluates the batches of points that it receives until its input is closed or it
+ * receives an empty batch.
+ *
+ * <p>All messages are written with {@link DataOutputStream}. The standard output of the
+ * process is reserved for the protocol; anything that the problem prints to
+ * {@link System#out} is redirected to the standard error.
+ * <ul>
+ * <li>Start: the parent sends the length of the serialized factory and its bytes. The worker
+ * answers {@link #READY} and the dimension of the problem, or {@link #FAILED} and a message.</li>
+ * <li>Batch: the parent sends the number of points and the coordinates of the points. The
+ * worker answers {@link #OK} and the values, or {@link #FAILED} and a message.</li>
+ * <li>Stop: the parent sends zero as the number of points.</li>
+ * </ul>
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class ProblemWorker
+{
+	static final int READY = 0x49434157; // "ICAW"
+	static final byte OK = 0;
+	static final byte FAILED = 1;
+
+	public static void main(String[] args) throws IOException
+	{
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		System.setOut(System.err);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+
+		Problem problem;
+		try
+		{
+			byte[] factory = new byte[in.readInt()];
+			in.readFully(factory);
+			try(ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(factory)))
+			{
+				problem = ((ProblemFactory)ois.readObject()).create();
+			}
+		} catch(Exception e)
+		{
+			out.writeInt(FAILED);
+			out.writeUTF(String.valueOf(e));
+			out.flush();
+			return;
+		}
+		out.writeInt(READY);
+		out.writeInt(problem.getDimension());
+		out.flush();
+
+		int dim = problem.getDimension();
+		double[] points = new double[0];
+		double[] values = new double[0];
+		for(int count = in.readInt(); count > 0; count = in.readInt())
+		{
+			if(points.length < count * dim)
+			{
+				points = new double[count * dim];
+				values = new double[count];
+			}
+			for(int i = 0; i < count * dim; i++)
+				points[i] = in.readDouble();
+
+			try
+			{
+				problem.valuesAt(points, count, values);
+			} catch(Throwable t)
+			{
+				out.writeByte(FAILED);
+				out.writeUTF(String.valueOf(t));
+				out.flush();
+				continue;
+			}
+			out.writeByte(OK);
+			for(int i = 0; i < count; i++)
+				out.writeDouble(values[i]);
+			out.flush();
+		}
+	}
+}
@@ -0,0 +1,445 @@
+package problem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Problem} whose values are computed by a pool of worker processes. Each worker is a
+ * separate JVM that hosts its own instance of the real objective, which is created there by a
+ * {@link ProblemFactory}. This makes it possible to evaluate objectives that cannot be used from
+ * several threads of one process, such as {@link PropellerProblem}, from the concurrent runs of
+ * the ICA algorithm.
+ *
+ * <p>The workers are started and their problems are created when this object is constructed, so
+ * the first evaluation does not pay for starting them. A batch of points is split between the
+ * workers and the points are sent to them over their standard input and output as raw doubles
+ * (see {@link ProblemWorker}). If a worker dies or does not answer a batch within the timeout, it
+ * is killed, a new worker is started in its place and the batch is sent again. A batch that fails
+ * on a fresh worker as well is reported with an exception. If a new worker cannot be started, the
+ * pool goes on with one worker less, and it is closed when no worker is left.
+ *
+ * <p>The workers use the class path of the current JVM. Example:
+ * <pre>
+ * try(ProcessPoolProblem pr = new ProcessPoolProblem("Propeller problem",
+ *         new double[]{3, 2, 0.5, 1, 55}, new double[] {7, 5, 1.4, 1.5, 75},
+ *         PropellerProblem::new, 4, 60000))
+ * {
+ *     ConcurrentICAEvaluation.icaTestOnAFunction(pr, 50, true);
+ * }
+ * </pre>
+ *
+ * @author Mazhar Ansari Ardeh
+ *
+ */
+public class ProcessPoolProblem extends Problem implements Closeable
+{
+	private static final long serialVersionUID = -1725300779367001652L;
+
+	/**
+	 * The number of times a batch is sent to a worker before giving up on it.
+	 */
+	private static final int MAX_ATTEMPTS = 2;
+
+	private transient byte[] factory;
+	private transient List<String> jvmOptions;
+	private transient long timeoutMillis;
+	private transient LinkedBlockingQueue<Worker> idleWorkers;
+	private transient List<Worker> workers;
+	private transient ExecutorService executor;
+	private transient ScheduledExecutorService watchdog;
+	private transient volatile boolean closed;
+
+	/**
+	 * Starts a pool of worker processes for a problem.
+	 * @param name the name of the problem.
+	 * @param lowerBounds the lower bounds of the problem.
+	 * @param upperBounds the upper bounds of the problem.
+	 * @param factory creates the problem in each worker process. The problem that it creates
+	 * must have the same dimension as the given bounds.
+	 * @param numOfWorkers the number of worker processes.
+	 * @param timeoutMillis the time in milliseconds that a worker may take to start or to
+	 * evaluate a batch of points.
+	 * @throws IOException if the workers cannot be started.
+	 */
+	public ProcessPoolProblem(String name, double[] lowerBounds, double[] upperBounds, ProblemFactory factory,
+							  int numOfWorkers, long timeoutMillis) throws IOException
+	{
+		this(name, lowerBounds, upperBounds, factory, numOfWorkers, timeoutMillis, new ArrayList<String>());
+	}
+
+	/**
+	 * Starts a pool of worker processes for a problem.
+	 * @param name the name of the problem.
+	 * @param lowerBounds the lower bounds of the problem.
+	 * @param upperBounds the upper bounds of the problem.
+	 * @param factory creates the problem in each worker process. The problem that it creates
+	 * must have the same dimension as the given bounds.
+	 * @param numOfWorkers the number of worker processes.
+	 * @param timeoutMillis the time in milliseconds that a worker may take to start or to
+	 * evaluate a batch of points.
+	 * @param jvmOptions options that are passed to the JVM of each worker, for example
+	 * <code>-Djava.library.path=...</code>.
+	 * @throws IOException if the workers cannot be started.
+	 */
+	public ProcessPoolProblem(String name, double[] lowerBounds, double[] upperBounds, ProblemFactory factory,
+							  int numOfWorkers, long timeoutMillis, List<String> jvmOptions) throws IOException
+	{
+		super(name, lowerBounds, upperBounds);
+		if(factory == null)
+			throw new IllegalArgumentException("Factory cannot be null.");
+		if(numOfWorkers <= 0)
+			throw new IllegalArgumentException("Number of workers must be a positive value.");
+		if(timeoutMillis <= 0)
+			throw new IllegalArgumentException("Timeout must be a positive value.");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream oos = new ObjectOutputStream(bytes))
+		{
+			oos.writeObject(factory);
+		}
+		this.factory = bytes.toByteArray();
+		this.jvmOptions = new ArrayList<String>(jvmOptions);
+		this.timeoutMillis = timeoutMillis;
+		this.idleWorkers = new LinkedBlockingQueue<Worker>();
+		this.workers = new CopyOnWriteArrayList<Worker>();
+		this.executor = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "ProcessPoolProblem-io");
+			t.setDaemon(true);
+			return t;
+		});
+		this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "ProcessPoolProblem-watchdog");
+			t.setDaemon(true);
+			return t;
+		});
+
+		try
+		{
+			// Start all workers first so that they warm up in parallel
+			for(int i = 0; i < numOfWorkers; i++)
+				workers.add(new Worker());
+			for(Worker worker : workers)
+			{
+				worker.awaitReady();
+				idleWorkers.add(worker);
+			}
+		} catch(IOException | RuntimeException e)
+		{
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of worker processes of this pool.
+	 * @return the number of workers.
+	 */
+	public int getNumberOfWorkers()
+	{
+		return workers.size();
+	}
+
+	@Override
+	public double valueAt(double[] input)
+	{
+		if(input == null)
+			throw new IllegalArgumentException("The input variable cannot be null");
+		if(input.length != getDimension())
+			throw new IllegalArgumentException("The input does not match the problem dimension");
+
+		double[] value = new double[1];
+		valuesAt(input, 0, 1, value);
+		return value[0];
+	}
+
+	/**
+	 * Splits the batch into one part for each worker and evaluates the parts concurrently.
+	 */
+	@Override
+	public void valuesAt(final double[] points, int fromPoint, int toPoint, final double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+		if(closed)
+			throw new IllegalStateException("The worker pool is closed.");
+		if(toPoint == fromPoint)
+			return;
+
+		int numOfWorkers = workers.size();
+		if(numOfWorkers == 0)
+			throw new IllegalStateException("The worker pool has no workers left.");
+
+		int chunk = (toPoint - fromPoint + numOfWorkers - 1) / numOfWorkers;
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for(int start = fromPoint; start < toPoint; start += chunk)
+		{
+			final int from = start, to = Math.min(start + chunk, toPoint);
+			Callable<Void> task = () -> {
+				evaluate(points, from, to, values);
+				return null;
+			};
+			futures.add(executor.submit(task));
+		}
+
+		// All parts are waited for, so that the failure that caused the others is reported
+		// rather than the interrupt of a part that was waiting for a worker
+		Throwable failure = null;
+		try
+		{
+			for(Future<Void> future : futures)
+			{
+				try
+				{
+					future.get();
+				} catch(ExecutionException e)
+				{
+					if(failure == null || failure instanceof InterruptedException)
+						failure = e.getCause();
+				}
+			}
+		} catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for the workers.", e);
+		}
+
+		if(failure instanceof RuntimeException)
+			throw (RuntimeException)failure;
+		if(failure != null)
+			throw new RuntimeException("Evaluating a batch of points has failed.", failure);
+	}
+
+	/**
+	 * Evaluates a part of a batch on an idle worker and replaces the worker if it fails.
+	 */
+	private void evaluate(double[] points, int from, int to, double[] values) throws InterruptedException
+	{
+		Worker worker = idleWorkers.take();
+		try
+		{
+			for(int attempt = 1; ; attempt++)
+			{
+				try
+				{
+					worker.evaluate(points, from, to, values);
+					return;
+				} catch(IOException e)
+				{
+					String reason = worker.timedOut ? "did not answer within " + timeoutMillis + " ms" : "has died (" + e + ")";
+					// The failed worker must not go back to the idle workers, even if no new
+					// worker can be started
+					Worker failed = worker;
+					worker = null;
+					worker = replace(failed);
+					if(attempt >= MAX_ATTEMPTS)
+						throw new RuntimeException("A worker process " + reason + " while evaluating " + (to - from) + " points.", e);
+				}
+			}
+		} finally
+		{
+			if(worker != null)
+				idleWorkers.add(worker);
+		}
+	}
+
+	/**
+	 * Kills a failed worker and starts a new one in its place. The new worker is started without
+	 * holding the lock of the pool, so the other workers can be replaced at the same time. If the
+	 * new worker cannot be started, the failed worker is still removed from the pool, and the pool
+	 * is closed if no worker is left.
+	 * @return the new worker.
+	 */
+	private Worker replace(Worker failed)
+	{
+		failed.destroy();
+		synchronized(this)
+		{
+			workers.remove(failed);
+			if(closed)
+				throw new IllegalStateException("The worker pool is closed.");
+		}
+
+		Worker worker;
+		try
+		{
+			worker = new Worker();
+			worker.awaitReady();
+		} catch(IOException e)
+		{
+			if(workers.isEmpty())
+				close();
+			throw new RuntimeException("Cannot restart a worker process.", e);
+		}
+
+		synchronized(this)
+		{
+			if(closed)
+			{
+				worker.destroy();
+				throw new IllegalStateException("The worker pool is closed.");
+			}
+			workers.add(worker);
+		}
+		return worker;
+	}
+
+	/**
+	 * Stops all worker processes.
+	 */
+	@Override
+	public synchronized void close()
+	{
+		if(closed)
+			return;
+		closed = true;
+
+		for(Worker worker : workers)
+			worker.stop();
+		executor.shutdownNow();
+		watchdog.shutdownNow();
+	}
+
+	/**
+	 * A worker process and the streams of its protocol.
+	 */
+	private class Worker
+	{
+		private final Process process;
+		private final DataOutputStream out;
+		private final DataInputStream in;
+		private volatile boolean timedOut;
+
+		Worker() throws IOException
+		{
+			List<String> command = new ArrayList<String>();
+			command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+			command.addAll(jvmOptions);
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(ProblemWorker.class.getName());
+
+			process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+			out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+			in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+
+			try
+			{
+				out.writeInt(factory.length);
+				out.write(factory);
+				out.flush();
+			} catch(IOException e)
+			{
+				destroy();
+				throw e;
+			}
+		}
+
+		/**
+		 * Waits until the worker has created its problem.
+		 */
+		void awaitReady() throws IOException
+		{
+			ScheduledFuture<?> kill = watchdog.schedule(this::timeOut, timeoutMillis, TimeUnit.MILLISECONDS);
+			try
+			{
+				int status = in.readInt();
+				if(status != ProblemWorker.READY)
+					throw new IOException("A worker process could not create the problem: " + in.readUTF());
+				int dim = in.readInt();
+				if(dim != getDimension())
+					throw new IOException("The problem of the worker processes has dimension " + dim + ", not " + getDimension());
+			} catch(IOException e)
+			{
+				destroy();
+				if(timedOut)
+					throw new IOException("A worker process did not start within " + timeoutMillis + " ms", e);
+				throw e;
+			} finally
+			{
+				kill.cancel(false);
+			}
+		}
+
+		void evaluate(double[] points, int from, int to, double[] values) throws IOException
+		{
+			int dim = getDimension();
+			ScheduledFuture<?> kill = watchdog.schedule(this::timeOut, timeoutMillis, TimeUnit.MILLISECONDS);
+			try
+			{
+				out.writeInt(to - from);
+				for(int i = from * dim; i < to * dim; i++)
+					out.writeDouble(points[i]);
+				out.flush();
+
+				if(in.readByte() != ProblemWorker.OK)
+					throw new ObjectiveException(in.readUTF());
+				for(int i = from; i < to; i++)
+					values[i] = in.readDouble();
+			} finally
+			{
+				kill.cancel(false);
+			}
+		}
+
+		private void timeOut()
+		{
+			timedOut = true;
+			destroy();
+		}
+
+		void stop()
+		{
+			try
+			{
+				out.writeInt(0);
+				out.flush();
+				if(!process.waitFor(1, TimeUnit.SECONDS))
+					destroy();
+			} catch(IOException e)
+			{
+				destroy();
+			} catch(InterruptedException e)
+			{
+				destroy();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		void destroy()
+		{
+			process.destroyForcibly();
+		}
+	}
+
+	/**
+	 * Thrown when the objective itself fails in a worker. The worker is still usable, so such a
+	 * failure is not retried.
+	 */
+	private static class ObjectiveException extends RuntimeException
+	{
+		private static final long serialVersionUID = 5497745021599232106L;
+
+		ObjectiveException(String message)
+		{
+			super("The objective has failed in a worker process: " + message);
+		}
+	}
+}
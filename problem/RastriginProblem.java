@@ -1,5 +1,4 @@
 package problem;
-import static java.lang.Math.pow;
 import static java.lang.Math.cos;
 import static java.lang.Math.PI;
 
@@ -49,12 +48,24 @@ public class RastriginProblem extends Problem
 	}
 	
 	public static double functionValueAt(double[] x) 
+	{
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim) 
 	{
 		double result = 0;
 		double a, b;
-		for(int i = 0; i < x.length; i++)
+		for(int i = offset; i < offset + dim; i++)
 		{
-			a = pow(x[i], 2);
+			a = x[i] * x[i];
 			b = -10 * cos( 2 * PI * x[i]) + 10;
 			result = result + a + b;// pow(x[i], 2) + (- 10 * cos( 2 * PI * x[i]) + 10);
 		}
@@ -62,6 +73,28 @@ public class RastriginProblem extends Problem
 		return result;
 	}
 	
+	@Override
+	public boolean isSeparable()
+	{
+		return true;
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return x * x - 10 * cos(2 * PI * x) + 10;
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -1,5 +1,4 @@
 package problem;
-import static java.lang.Math.pow;
 
 /**
  * @author Mazhar
@@ -50,13 +49,40 @@ public class RosenbrockProblem extends Problem
 	{
 		if(x == null)
 			throw new IllegalArgumentException("The input value cannot be null.");
+		
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
+	{
 		double result = 0;
-		for(int i = 0; i < x.length - 1; i++)
-			result += 100 * pow(x[i + 1] - pow(x[i], 2) ,2) + pow(x[i] - 1, 2);
+		for(int i = offset; i < offset + dim - 1; i++)
+		{
+			double a = x[i + 1] - x[i] * x[i];
+			double b = x[i] - 1;
+			result += 100 * a * a + b * b;
+		}
 		
 		return result;
 	}
 	
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
+	
 	@Override
 	public String toString()
 	{
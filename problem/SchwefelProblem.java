@@ -24,9 +24,21 @@ public class SchwefelProblem extends Problem
 	}
 	
 	public double functionValueAt(double[] x)
+	{
+		return functionValueAt(x, 0, getDimension());
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
 	{
 		double retval = 0f;
-		for(int i = 0; i < getDimension(); i++)
+		for(int i = offset; i < offset + dim; i++)
 		{
 			double abs = Math.abs(x[i]);
 			double sqrt = Math.sqrt(abs);
@@ -34,7 +46,29 @@ public class SchwefelProblem extends Problem
 			double fa = x[i] * sin;
 			retval = retval + fa;
 		}
-		retval = (418.9829 * getDimension()) - retval;
+		retval = (418.9829 * dim) - retval;
 		return retval;
 	}
+	
+	@Override
+	public boolean isSeparable()
+	{
+		return true;
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return -x * Math.sin(Math.sqrt(Math.abs(x)));
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
 }
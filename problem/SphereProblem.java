@@ -35,13 +35,48 @@ public final class SphereProblem extends Problem implements Serializable
 	{
 		if(x == null)
 			throw new IllegalArgumentException("The input variable cannot be null");
+		
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
+	{
 		double result = 0;
-		for(int i = 0; i < x.length; i++)
-			result += Math.pow(x[i], 2);
+		for(int i = offset; i < offset + dim; i++)
+			result += x[i] * x[i];
 		
 		return result;
 	}
 	
+	@Override
+	public boolean isSeparable()
+	{
+		return true;
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return x * x;
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
+	
 	@Override
 	public String toString()
 	{
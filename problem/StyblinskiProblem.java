@@ -17,13 +17,49 @@ public class StyblinskiProblem extends Problem
 	
 	@Override
 	public double valueAt(double[] x)
+	{
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
 	{
 		double retval = 0;
-		for(int i = 0; i < x.length; i++)
+		for(int i = offset; i < offset + dim; i++)
 		{
-			retval = retval + Math.pow(x[i], 4) - (16 * Math.pow(x[i], 2)) + (5 * x[i]); 
+			double x2 = x[i] * x[i];
+			retval = retval + x2 * x2 - (16 * x2) + (5 * x[i]); 
 		}
 		
 		return retval * 0.5;
 	}
+	
+	@Override
+	public boolean isSeparable()
+	{
+		return true;
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		double x2 = x * x;
+		return 0.5 * (x2 * x2 - (16 * x2) + (5 * x));
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
 }
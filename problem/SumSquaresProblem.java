@@ -24,15 +24,49 @@ public class SumSquaresProblem extends Problem
 	}
 	
 	public static double functionValueAt(double[] x)
+	{
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
 	{
 		double retval = 0f;
-		int dim = x.length;
 		for(int i = 0; i < dim; i++)
 		{
-			retval = retval + i * Math.pow(x[i], 2);
+			double xi = x[offset + i];
+			retval = retval + i * xi * xi;
 		}
 		
 		return retval;
 	}
+	
+	@Override
+	public boolean isSeparable()
+	{
+		return true;
+	}
+
+	@Override
+	public double termAt(int index, double x)
+	{
+		return index * x * x;
+	}
+
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
 
 }
@@ -1,5 +1,10 @@
 package problem;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
 import com.mathworks.toolbox.javabuilder.MWException;
 
 public class TestProblems
@@ -8,17 +13,93 @@ public class TestProblems
 	/**
 	 * @param args
 	 * @throws MWException 
+	 * @throws IOException 
 	 */
-	public static void main(String[] args) throws MWException
+	public static void main(String[] args) throws MWException, IOException
 	{
 		Problem t = new Whitley(10, -100, 100);
 		double [] input = {1, 1, 1, 1, 1,1, 1, 1, 1, 1};
 		double retval = t.valueAt(input);
 		System.out.println(retval);
 		
+		testProcessPool();
+		
 		t = new PropellerProblem();
 		retval = t.valueAt(new double[]{7, 5, 1.4, 1, 75});
 		System.out.println(retval);
 	} 
+	
+	/**
+	 * Tests the recovery of {@link ProcessPoolProblem} from workers that die, time out or cannot
+	 * be restarted, with {@link FaultyProblem} as the objective of the workers.
+	 * @throws IOException if the workers cannot be started.
+	 */
+	static void testProcessPool() throws IOException
+	{
+		int dim = 3;
+		File failure = File.createTempFile("workers", ".fail");
+		failure.delete();
+		Problem sphere = new SphereProblem(dim, -1, 1);
+		double[] points = new double[100 * dim];
+		Random random = new Random(1);
+		for(int i = 0; i < points.length; i++)
+			points[i] = random.nextDouble() * 1.8 - 0.9;
+		double[] expected = new double[100];
+		sphere.valuesAt(points, 100, expected);
+
+		ProcessPoolProblem pool = new ProcessPoolProblem("Faulty sphere", sphere.getLowerBounds(), sphere.getUpperBounds(), 
+														 FaultyProblem.factory(dim, -1, 1, failure), 2, 2000);
+		try
+		{
+			double[] values = new double[100];
+			pool.valuesAt(points, 100, values);
+			check(Arrays.equals(values, expected), "The values of the workers are wrong.");
+
+			// A worker that dies or times out is replaced and the point fails again on the new one
+			checkFails(pool, new double[] {1, 0, 0}, "has died");
+			checkFails(pool, new double[] {-1, 0, 0}, "did not answer");
+			checkFails(pool, new double[] {0, 1, 0}, "objective has failed");
+			check(pool.getNumberOfWorkers() == 2, "A failed worker was not replaced.");
+
+			// A worker that cannot be restarted is removed and the pool goes on without it
+			failure.createNewFile();
+			checkFails(pool, new double[] {1, 0, 0}, "Cannot restart");
+			check(pool.getNumberOfWorkers() == 1, "A worker that could not be restarted is still in the pool.");
+			for(int i = 0; i < 3; i++)
+			{
+				pool.valuesAt(points, 100, values);
+				check(Arrays.equals(values, expected), "The values of the remaining worker are wrong.");
+			}
+
+			// The pool is closed when its last worker cannot be restarted
+			checkFails(pool, new double[] {1, 0, 0}, "Cannot restart");
+			check(pool.getNumberOfWorkers() == 0, "The last worker is still in the pool.");
+			checkFails(pool, new double[] {0, 0, 0}, "closed");
+			System.out.println("Worker pool test passed.");
+		} finally
+		{
+			pool.close();
+			failure.delete();
+		}
+	}
+
+	private static void checkFails(Problem problem, double[] point, String message)
+	{
+		try
+		{
+			problem.valueAt(point);
+		} catch(RuntimeException e)
+		{
+			check(String.valueOf(e.getMessage()).contains(message), "Unexpected failure: " + e);
+			return;
+		}
+		throw new AssertionError("Evaluating " + Arrays.toString(point) + " did not fail.");
+	}
+
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+			throw new AssertionError(message);
+	}
 
 }
@@ -27,19 +27,41 @@ public class ZakharovProblem extends Problem
 	}
 	
 	public static double functionValueAt(double[] x)
+	{
+		return functionValueAt(x, 0, x.length);
+	}
+	
+	/**
+	 * Computes the function value at a point that is stored in a buffer.
+	 * @param x the buffer that contains the point. 
+	 * @param offset the index of the first coordinate of the point in the buffer.
+	 * @param dim the dimension of the point.
+	 * @return the function value at the point.
+	 */
+	static double functionValueAt(double[] x, int offset, int dim)
 	{
 		double result = 0f;
-		int dim = x.length;
 		double p1 = 0f; // sum of (x_i^2)
 		double p2 = 0f; // sum of (0.5ix_i)
 		for(int i = 0; i < dim; i++)
 		{
-			p1 += x[i] * x[i];
-			p2 += (0.5 * i * x[i]);
+			double xi = x[offset + i];
+			p1 += xi * xi;
+			p2 += (0.5 * i * xi);
 		}
 		
 		result = p1 + Math.pow(p2, 2) + Math.pow(p2, 4);
 		return result;
 	}
+	
+	@Override
+	public void valuesAt(double[] points, int fromPoint, int toPoint, double[] values)
+	{
+		checkBatch(points, fromPoint, toPoint, values);
+
+		int dim = getDimension();
+		for(int i = fromPoint; i < toPoint; i++)
+			values[i] = functionValueAt(points, i * dim, dim);
+	}
 
 }